@@ -0,0 +1,154 @@
+package mines;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+MinesBenchmark: JMH benchmarks for the hot paths of the Minesweeper logic (Mines).
+Each benchmark runs on square boards from 10x10 to 10000x10000, on a sparse (1%)
+and a dense (20%) minefield:
+construction, the flood fill of a first click (open), reading every cell (get, code,
+and fill row by row), rendering the whole board (toString), the win check (isDone),
+and moveMine.
+Boards are built from a fixed seed, so every run measures the same layouts.
+openFirstClick changes its board, so it opens a batch of fresh copies per call (built
+outside of the measured time): on small boards a single open is too short to time alone.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+@State(Scope.Thread)
+public class MinesBenchmark {
+    private static final long SEED = 20240611L;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    @Param({"0.01", "0.2"})
+    public double density;
+
+    // a board shared by the read-only benchmarks (and moveMine)
+    private Mines board;
+    // the cell holding the mine that moveMine keeps moving around
+    private int movingMine;
+
+    // number of mines for the current size and density (at least one)
+    private static int mineCount(int size, double density){
+        return Math.max(1, (int) (size * (long) size * density));
+    }
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        board = new Mines(size, size, mineCount(size, density), SEED);
+        // show every cell, so get/toString compute the neighbor counts too
+        board.setShowAll(true);
+        movingMine = -1;
+        for(int cell=0;cell<size*size && movingMine < 0;cell++){
+            if(board.hasMine(cell / size, cell % size))
+                movingMine = cell;
+        }
+    }
+
+    // boards opened per call of openFirstClick
+    private static final int BATCH = 16;
+
+    // fresh boards for each call of a benchmark that changes the board:
+    // copies of a board built once per trial
+    @State(Scope.Thread)
+    public static class FreshBoards {
+        private Mines template;
+        private final Mines[] boards = new Mines[BATCH];
+        private int x, y;
+
+        @Setup(Level.Trial)
+        public void build(MinesBenchmark params){
+            template = new Mines(params.size, params.size, mineCount(params.size, params.density), SEED);
+            // first click in the middle, with the UI rule (never a mine)
+            x = params.size / 2;
+            y = params.size / 2;
+            if(template.hasMine(x, y))
+                template.moveMine(x, y);
+        }
+
+        @Setup(Level.Invocation)
+        public void copy(){
+            for(int k=0;k<BATCH;k++)
+                boards[k] = new Mines(template);
+        }
+    }
+
+    @Benchmark
+    public Mines construct(){
+        return new Mines(size, size, mineCount(size, density), SEED);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void openFirstClick(FreshBoards fresh, Blackhole bh){
+        for(Mines board : fresh.boards)
+            bh.consume(board.open(fresh.x, fresh.y));
+    }
+
+    @Benchmark
+    public void getAll(Blackhole bh){
+        for(int i=0;i<size;i++){
+            for(int j=0;j<size;j++){
+                bh.consume(board.get(i, j));
+            }
+        }
+    }
+
+    @Benchmark
+    public void codeAll(Blackhole bh){
+        for(int i=0;i<size;i++){
+            for(int j=0;j<size;j++){
+                bh.consume(board.code(i, j));
+            }
+        }
+    }
+
+    @Benchmark
+    public void fillRows(Blackhole bh){
+        byte[] row = new byte[size];
+        for(int i=0;i<size;i++){
+            board.fill(row, i, 0, 1, size);
+            bh.consume(row);
+        }
+    }
+
+    @Benchmark
+    public String toStringAll(){
+        return board.toString();
+    }
+
+    @Benchmark
+    public boolean isDone(){
+        return board.isDone();
+    }
+
+    @Benchmark
+    public int moveMine(){
+        // keep moving the same mine, so the density never changes
+        int cell = board.moveMine(movingMine / size, movingMine % size);
+        if(cell >= 0)
+            movingMine = cell;
+        return cell;
+    }
+}
@@ -0,0 +1,152 @@
+package mines;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+BoardPool: A small pool of ready-made boards for the current game settings, so a new
+game does not wait for its board to be built (or, in no-guess mode, searched for).
+A background thread keeps the pool filled. Changing the settings (configure) drops the
+boards made for the old settings; boards already being built for them are dropped when
+they are done (a board is only added under the pool's lock, while its settings are still
+the current ones, so an old board never takes the place of a new one).
+take() returns a ready board, or builds one on the calling thread if none is ready yet.
+The pool holds at most `capacity` boards, and fewer for large boards (MAX_POOLED_CELLS).
+ */
+
+public class BoardPool {
+    // total cells kept ready (large boards are pooled one at a time)
+    private static final long MAX_POOLED_CELLS = 1L << 26;
+    // search limit for a no-guess board (see NoGuessGenerator)
+    public static final long NO_GUESS_TIMEOUT_MS = 100;
+
+    // the settings boards are made for (compared by identity - configure replaces them)
+    private static final class Settings {
+        private final int height, width, numMines;
+        private final NoGuessGenerator generator;
+
+        private Settings(int height, int width, int numMines, boolean noGuess){
+            this.height = height;
+            this.width = width;
+            this.numMines = numMines;
+            generator = noGuess ? new NoGuessGenerator(height, width, numMines, NO_GUESS_TIMEOUT_MS) : null;
+        }
+
+        private boolean matches(int height, int width, int numMines, boolean noGuess){
+            return this.height == height && this.width == width && this.numMines == numMines
+                    && (generator != null) == noGuess;
+        }
+
+        private Mines create(){
+            // no-guess boards start at the center cell
+            return generator == null ? new Mines(height, width, numMines)
+                    : generator.generate(height / 2, width / 2, System.nanoTime());
+        }
+    }
+
+    // a pooled board and the settings it was made for
+    private static final class Ready {
+        private final Settings settings;
+        private final Mines board;
+
+        private Ready(Settings settings, Mines board){
+            this.settings = settings;
+            this.board = board;
+        }
+    }
+
+    private final int capacity;
+    private final BlockingQueue<Ready> ready;
+    private final ExecutorService producer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "board-pool");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final AtomicBoolean refillQueued = new AtomicBoolean();
+    private volatile Settings settings;
+
+    public BoardPool(int capacity){
+        this.capacity = Math.max(1, capacity);
+        ready = new ArrayBlockingQueue<>(this.capacity);
+    }
+
+    // set the settings of the next games (a no-op if they did not change)
+    public synchronized void configure(int height, int width, int numMines, boolean noGuess){
+        Settings s = settings;
+        if(s != null && s.matches(height, width, numMines, noGuess))
+            return;
+        settings = new Settings(height, width, numMines, noGuess);
+        ready.clear();
+        requestRefill();
+    }
+
+    // the no-guess generator of the current settings (null in classic mode), for its metrics
+    public NoGuessGenerator getGenerator(){
+        Settings s = settings;
+        return s == null ? null : s.generator;
+    }
+
+    // get a board for the current settings (see configure)
+    public Mines take(){
+        Settings s = settings;
+        if(s == null)
+            throw new IllegalStateException("board pool is not configured");
+        Ready r;
+        while((r = ready.poll()) != null){
+            if(r.settings == s){
+                requestRefill();
+                return r.board;
+            }
+        }
+        // nothing ready yet - build it here (and have the pool catch up)
+        requestRefill();
+        return s.create();
+    }
+
+    // number of boards in the pool, including boards for old settings (package-private, for the tests)
+    int queuedCount(){
+        return ready.size();
+    }
+
+    // number of boards ready for the current settings
+    public int readyCount(){
+        Settings s = settings;
+        int count = 0;
+        for(Ready r : ready){
+            if(r.settings == s)
+                count++;
+        }
+        return count;
+    }
+
+    private void requestRefill(){
+        if(refillQueued.compareAndSet(false, true)){
+            producer.execute(() -> {
+                refillQueued.set(false);
+                refill();
+            });
+        }
+    }
+
+    // build boards until the pool is full (stops when the settings change)
+    private void refill(){
+        Settings s;
+        while((s = settings) != null){
+            long cells = (long) s.height * s.width;
+            int limit = (int) Math.max(1, Math.min(capacity, MAX_POOLED_CELLS / cells));
+            if(ready.size() >= limit)
+                return;
+            Mines board = s.create();
+            // boards for old settings are not kept (checked under the lock of configure,
+            // so the board can't be added after configure cleared the pool)
+            synchronized(this){
+                if(s != settings || !ready.offer(new Ready(s, board)))
+                    return;
+            }
+        }
+    }
+}
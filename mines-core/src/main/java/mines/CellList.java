@@ -0,0 +1,83 @@
+package mines;
+
+import java.util.Arrays;
+
+/*
+CellList: A growable list of flattened cell indices (row * width + column).
+Used by the Minesweeper logic to report which cells changed during an operation
+(for example, every cell revealed by a single open), and as a work stack for the
+flood fill, without boxing each index into an Integer.
+ */
+
+public class CellList {
+    private int[] data;
+    private int size;
+
+    public CellList(){
+        this(16);
+    }
+
+    public CellList(int initialCapacity){
+        data = new int[Math.max(1, initialCapacity)];
+        size = 0;
+    }
+
+    // append a cell index to the end of the list
+    public void add(int cell){
+        if(size == data.length)
+            data = Arrays.copyOf(data, size * 2);
+        data[size++] = cell;
+    }
+
+    // append every cell index of another list
+    public void addAll(CellList other){
+        if(size + other.size > data.length)
+            data = Arrays.copyOf(data, Math.max(size + other.size, size * 2));
+        System.arraycopy(other.data, 0, data, size, other.size);
+        size += other.size;
+    }
+
+    // remove and return the last cell index (stack usage)
+    public int pop(){
+        return data[--size];
+    }
+
+    // get the cell index at a position in the list
+    public int get(int i){
+        if(i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        return data[i];
+    }
+
+    // replace the cell index at a position in the list
+    public void set(int i, int cell){
+        if(i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        data[i] = cell;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    // keep only the first newSize cell indices
+    public void truncate(int newSize){
+        if(newSize < 0 || newSize > size)
+            throw new IndexOutOfBoundsException("Size: " + newSize);
+        size = newSize;
+    }
+
+    // empty the list (keeps the allocated capacity for reuse)
+    public void clear(){
+        size = 0;
+    }
+
+    // copy the cell indices into a new array
+    public int[] toArray(){
+        return Arrays.copyOf(data, size);
+    }
+}
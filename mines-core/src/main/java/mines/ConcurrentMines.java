@@ -0,0 +1,169 @@
+package mines;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.CharBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ConcurrentMines: A thread-safe Minesweeper board for many players (or bot threads)
+working on one minefield at the same time.
+The mine layout is fixed when the board is created (taken from a Mines board, for
+example after its first click was made safe). Cells use the same one-byte layout as
+Mines, and every state change is a compare-and-set on the cell's byte, so:
+ - a cell is opened by exactly one thread (the one whose CAS sets its OPEN bit), and only
+   that thread expands its neighbors, so concurrent flood fills never open a cell twice
+   and never lose a reveal,
+ - flag toggles are atomic read-modify-write operations, so they are linearizable.
+There are no locks, so threads working on disjoint regions do not wait for each other.
+Supports the same operations as Mines (open, toggleFlag, get, isDone).
+ */
+
+public class ConcurrentMines {
+    private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private final int height, width, numMines;
+    private final byte[] cells;
+    private final int safeCells;
+    // opened safe cells (summed on demand by isDone)
+    private final LongAdder openedCells = new LongAdder();
+
+    // create a shared board with the layout and current state of a Mines board
+    public ConcurrentMines(Mines board){
+        height = board.getHeight();
+        width = board.getWidth();
+        numMines = board.getNumMines();
+        cells = board.copyCells();
+        int mined = 0;
+        for(byte cell : cells){
+            if((cell & Mines.MINE) != 0)
+                mined++;
+        }
+        safeCells = cells.length - mined;
+        openedCells.add(board.getOpenedCells());
+    }
+
+    public int getHeight(){return height;}
+    public int getWidth(){return width;}
+    public int getNumMines(){return numMines;}
+    // number of opened safe cells (exact once no move is in progress)
+    public long getOpenedCells(){return openedCells.sum();}
+
+    private byte state(int x, int y){
+        return (byte) CELL.getVolatile(cells, x * width + y);
+    }
+
+    public boolean hasMine(int x, int y){
+        return (state(x,y) & Mines.MINE) != 0;
+    }
+    public boolean isOpen(int x, int y){
+        return (state(x,y) & Mines.OPEN) != 0;
+    }
+    public boolean isFlagged(int x, int y){
+        return (state(x,y) & Mines.FLAG) != 0;
+    }
+
+    private boolean inBound(int x, int y){
+        return x>=0 && x<height && y>=0 && y<width;
+    }
+
+    // toggle the flag of a closed cell - returns the new flag state
+    // (open cells can't be flagged, their flag state stays false)
+    public boolean toggleFlag(int x, int y){
+        int cell = x * width + y;
+        byte old;
+        do{
+            old = (byte) CELL.getVolatile(cells, cell);
+            if((old & Mines.OPEN) != 0)
+                return false;
+        }while(!CELL.compareAndSet(cells, cell, old, (byte) (old ^ Mines.FLAG)));
+        return (old & Mines.FLAG) == 0;
+    }
+
+    // helper method for opening a cell - true only for the thread that opened it
+    private boolean tryOpen(int cell){
+        byte old;
+        do{
+            old = (byte) CELL.getVolatile(cells, cell);
+            if((old & (Mines.OPEN | Mines.MINE)) != 0)
+                return false;
+        }while(!CELL.compareAndSet(cells, cell, old, (byte) (old | Mines.OPEN)));
+        openedCells.increment();
+        return true;
+    }
+
+    // open a cell (same rules as Mines.open)
+    public boolean open(int i, int j){
+        return open(i, j, null);
+    }
+
+    // open a cell and report the cells revealed by this call (may be null)
+    public boolean open(int i, int j, CellList revealed){
+        int origin = i * width + j;
+        if(!tryOpen(origin))
+            return false;
+        if(revealed != null)
+            revealed.add(origin);
+        if((cells[origin] & Mines.COUNT_MASK) != 0)
+            return true;
+        // flood fill - each thread expands only the cells it opened itself
+        CellList pending = new CellList();
+        pending.add(origin);
+        while(!pending.isEmpty()){
+            int cell = pending.pop();
+            int x = cell / width, y = cell % width;
+            for(int r=x-1;r<x+2;r++){
+                for(int c=y-1;c<y+2;c++){
+                    int n = r * width + c;
+                    if(inBound(r,c) && tryOpen(n)){
+                        if(revealed != null)
+                            revealed.add(n);
+                        // neighbor counts never change, so a plain read is enough
+                        if((cells[n] & Mines.COUNT_MASK) == 0)
+                            pending.add(n);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // check if game has been won -> no unopened un-mined cells exist
+    public boolean isDone(){
+        return openedCells.sum() == safeCells;
+    }
+
+    public String get(int i, int j){
+        return Mines.symbol(code(i,j));
+    }
+
+    // get the code of a cell (see Mines.code)
+    public byte code(int i, int j){
+        return Mines.codeOf(state(i,j), false);
+    }
+
+    // write the entire grid to out (same format as Mines.appendTo; each cell is read
+    // atomically, but cells changed by other threads meanwhile may show either state)
+    public void appendTo(Appendable out) throws IOException {
+        char[] row = new char[width + 1];
+        row[width] = '\n';
+        CharBuffer line = CharBuffer.wrap(row);
+        for(int i=0;i<height;i++){
+            for(int j=0;j<width;j++)
+                row[j] = Mines.symbolChar(code(i,j));
+            out.append(line, 0, row.length);
+        }
+    }
+
+    public String toString(){
+        StringBuilder b = new StringBuilder(height * (width + 1));
+        try{
+            appendTo(b);
+        }catch(IOException e){
+            throw new UncheckedIOException(e); // StringBuilder does not throw
+        }
+        return b.toString();
+    }
+}
@@ -0,0 +1,283 @@
+package mines;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/*
+EndlessMines: The logic for an "endless" Minesweeper game on an unbounded minefield.
+The field is split into square chunks of CHUNK_SIZE x CHUNK_SIZE cells. A chunk's mines
+are generated on demand, from a seed derived from the game seed and the chunk coordinates,
+the first time a cell in (or next to) it is needed - by the flood fill of open, or by
+reading the cells of a viewport.
+Loaded chunks that are far from the current focus (last opened cell, or the viewport set
+by setFocus) are evicted from memory. Their mines are regenerated from the seed when
+needed again, and only their open/flag state is kept, as two bitsets per chunk.
+The cells around (0,0) never hold a mine, so opening (0,0) is always a safe start.
+Supports the same per-cell operations as Mines (open, toggleFlag, get), with coordinates
+that may be any int (including negative values).
+ */
+
+public class EndlessMines {
+    // chunk size (cells per side) - a power of two, so chunk coordinates are shifts
+    public static final int CHUNK_SHIFT = 6;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+    // allowed mine density - below ~0.1 the empty regions percolate, and a single
+    // open could flood an unbounded area
+    public static final double MIN_DENSITY = 0.12, MAX_DENSITY = 0.9;
+    // how many chunks may stay loaded before far ones are evicted,
+    // and the distance (in chunks) around the focus that is never evicted
+    // (package-private for the tests)
+    static final int MAX_LOADED_CHUNKS = 256, KEEP_RADIUS = 4;
+
+    // cell states of a loaded chunk (one byte per cell, the state bits of Mines -
+    // the neighbor count is not stored, since it may depend on chunks not loaded yet)
+    private static final byte MINE = Mines.MINE, OPEN = Mines.OPEN, FLAG = Mines.FLAG;
+
+    // a loaded chunk: cell states, plus whether the player changed any of them
+    private static class Chunk {
+        private final byte[] cells = new byte[CHUNK_CELLS];
+        private boolean touched;
+    }
+
+    private final long seed;
+    private final int minesPerChunk;
+    // loaded chunks, and the compact open/flag bitsets of evicted (touched) chunks
+    private final Map<Long, Chunk> loaded = new HashMap<>();
+    private final Map<Long, long[]> evicted = new HashMap<>();
+    // the chunk looked up last (neighboring cells nearly always share a chunk,
+    // so most lookups skip the boxed map key)
+    private Chunk lastChunk;
+    private int lastCx, lastCy;
+    // focus point (cell coordinates) - chunks around it are kept loaded
+    private int focusX, focusY;
+    private long openedCells;
+    // work stack for the flood fill (pairs of x,y)
+    private final CellList pending = new CellList();
+
+    public EndlessMines(double density, long seed){
+        if(density < MIN_DENSITY || density > MAX_DENSITY)
+            throw new IllegalArgumentException("density must be between " + MIN_DENSITY + " and " + MAX_DENSITY);
+        this.seed = seed;
+        minesPerChunk = (int) Math.round(density * CHUNK_CELLS);
+    }
+
+    public long getSeed(){return seed;}
+    public long getOpenedCells(){return openedCells;}
+    public int getLoadedChunks(){return loaded.size();}
+    public int getStoredChunks(){return evicted.size();}
+
+    // helper method to pack chunk coordinates into a map key
+    private static long chunkKey(int cx, int cy){
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    // helper method to derive a chunk seed from the game seed (SplitMix64 finalizer)
+    private long chunkSeed(int cx, int cy){
+        long z = seed + chunkKey(cx, cy) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // get a chunk, generating it (and restoring its saved state) if needed
+    private Chunk chunk(int cx, int cy){
+        if(lastChunk != null && cx == lastCx && cy == lastCy)
+            return lastChunk;
+        long key = chunkKey(cx, cy);
+        Chunk c = loaded.get(key);
+        if(c == null){
+            c = generate(cx, cy);
+            long[] saved = evicted.remove(key);
+            if(saved != null)
+                restore(c, saved);
+            loaded.put(key, c);
+        }
+        lastChunk = c;
+        lastCx = cx;
+        lastCy = cy;
+        return c;
+    }
+
+    // helper method for generating the mines of a chunk from its seed
+    // (Floyd's sampling, as in Mines)
+    private Chunk generate(int cx, int cy){
+        Chunk c = new Chunk();
+        Random rnd = new Random(chunkSeed(cx, cy));
+        for(int j=CHUNK_CELLS-minesPerChunk;j<CHUNK_CELLS;j++){
+            int t = rnd.nextInt(j + 1);
+            c.cells[(c.cells[t] & MINE) != 0 ? j : t] |= MINE;
+        }
+        // keep the start area (around 0,0) free of mines
+        for(int x=-1;x<2;x++){
+            for(int y=-1;y<2;y++){
+                if(x >> CHUNK_SHIFT == cx && y >> CHUNK_SHIFT == cy)
+                    c.cells[localIdx(x, y)] &= ~MINE;
+            }
+        }
+        return c;
+    }
+
+    // compact chunk state: open bits followed by flag bits (one bit per cell)
+    private static long[] save(Chunk c){
+        long[] bits = new long[2 * CHUNK_CELLS / 64];
+        for(int i=0;i<CHUNK_CELLS;i++){
+            if((c.cells[i] & OPEN) != 0)
+                bits[i >> 6] |= 1L << i;
+            if((c.cells[i] & FLAG) != 0)
+                bits[(CHUNK_CELLS + i) >> 6] |= 1L << i;
+        }
+        return bits;
+    }
+
+    private static void restore(Chunk c, long[] bits){
+        for(int i=0;i<CHUNK_CELLS;i++){
+            if((bits[i >> 6] & (1L << i)) != 0)
+                c.cells[i] |= OPEN;
+            if((bits[(CHUNK_CELLS + i) >> 6] & (1L << i)) != 0)
+                c.cells[i] |= FLAG;
+        }
+        c.touched = true;
+    }
+
+    // helper method for the index of a cell inside its chunk
+    private static int localIdx(int x, int y){
+        return (x & CHUNK_MASK) * CHUNK_SIZE + (y & CHUNK_MASK);
+    }
+
+    private byte state(int x, int y){
+        return chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT).cells[localIdx(x, y)];
+    }
+
+    public boolean hasMine(int x, int y){
+        return (state(x, y) & MINE) != 0;
+    }
+    public boolean isOpen(int x, int y){
+        return (state(x, y) & OPEN) != 0;
+    }
+    public boolean isFlagged(int x, int y){
+        return (state(x, y) & FLAG) != 0;
+    }
+
+    // toggle flag on or off
+    public void toggleFlag(int x, int y){
+        Chunk c = chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        c.cells[localIdx(x, y)] ^= FLAG;
+        c.touched = true;
+    }
+
+    // helper method for counting the number of mined neighbors
+    private int countMinedNeighbors(int x, int y){
+        int count = 0;
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                if((i != x || j != y) && hasMine(i, j))
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    // helper method for opening a cell (false if it was already open)
+    private boolean setCellOpen(int x, int y){
+        Chunk c = chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        int idx = localIdx(x, y);
+        if((c.cells[idx] & OPEN) != 0)
+            return false;
+        c.cells[idx] |= OPEN;
+        c.touched = true;
+        openedCells++;
+        return true;
+    }
+
+    // open a cell (same rules as Mines.open), flood-filling empty regions
+    // and moving the focus to the opened cell
+    public boolean open(int i, int j){
+        if(hasMine(i, j) || !setCellOpen(i, j))
+            return false;
+        if(countMinedNeighbors(i, j) == 0){
+            pending.add(i);
+            pending.add(j);
+        }
+        while(!pending.isEmpty()){
+            int y = pending.pop(), x = pending.pop();
+            for(int r=x-1;r<x+2;r++){
+                for(int c=y-1;c<y+2;c++){
+                    if(!hasMine(r, c) && setCellOpen(r, c) && countMinedNeighbors(r, c) == 0){
+                        pending.add(r);
+                        pending.add(c);
+                    }
+                }
+            }
+        }
+        setFocus(i, j);
+        return true;
+    }
+
+    public String get(int i, int j){
+        return Mines.symbol(code(i, j));
+    }
+
+    // get the code of a cell (see Mines.code)
+    public byte code(int i, int j){
+        byte cell = state(i, j);
+        // only an open cell without a mine shows its count
+        if((cell & (OPEN | MINE)) == OPEN)
+            cell |= countMinedNeighbors(i, j);
+        return Mines.codeOf(cell, false);
+    }
+
+    // write a rectangular viewport of the field to out (same format as Mines.appendTo)
+    public void appendTo(Appendable out, int top, int left, int rows, int cols) throws IOException {
+        char[] row = new char[cols + 1];
+        row[cols] = '\n';
+        CharBuffer line = CharBuffer.wrap(row);
+        for(int i=top;i<top+rows;i++){
+            for(int j=0;j<cols;j++)
+                row[j] = Mines.symbolChar(code(i, left + j));
+            out.append(line, 0, row.length);
+        }
+    }
+
+    // get a rectangular viewport of the field as a string (same format as Mines.toString)
+    public String toString(int top, int left, int rows, int cols){
+        StringBuilder b = new StringBuilder(rows * (cols + 1));
+        try{
+            appendTo(b, top, left, rows, cols);
+        }catch(IOException e){
+            throw new UncheckedIOException(e); // StringBuilder does not throw
+        }
+        return b.toString();
+    }
+
+    // move the focus (e.g. to the center of the viewport) and evict far chunks
+    public void setFocus(int x, int y){
+        focusX = x;
+        focusY = y;
+        if(loaded.size() > MAX_LOADED_CHUNKS)
+            evictFarChunks();
+    }
+
+    // helper method for evicting the chunks outside KEEP_RADIUS of the focus
+    private void evictFarChunks(){
+        int fx = focusX >> CHUNK_SHIFT, fy = focusY >> CHUNK_SHIFT;
+        lastChunk = null; // it may be evicted
+        for(Iterator<Map.Entry<Long, Chunk>> it = loaded.entrySet().iterator(); it.hasNext();){
+            Map.Entry<Long, Chunk> e = it.next();
+            long key = e.getKey();
+            int cx = (int) (key >> 32), cy = (int) key;
+            if(Math.max(Math.abs((long) cx - fx), Math.abs((long) cy - fy)) > KEEP_RADIUS){
+                // untouched chunks are simply regenerated from the seed later
+                if(e.getValue().touched)
+                    evicted.put(key, save(e.getValue()));
+                it.remove();
+            }
+        }
+    }
+}
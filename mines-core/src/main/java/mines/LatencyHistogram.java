@@ -0,0 +1,73 @@
+package mines;
+
+/*
+LatencyHistogram: A small log-linear histogram of durations (in nanoseconds).
+Values are counted in 8 sub-buckets per power of two (about 12% resolution), so
+recording is a few instructions and the memory use is fixed. Histograms filled by
+different threads are combined with merge. Not thread-safe - keep one per thread.
+ */
+
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 8;
+    // number of buckets (package-private: MinesMetrics keeps concurrent counts per bucket)
+    static final int BUCKETS = 64 * SUB_BUCKETS;
+    private final long[] counts = new long[BUCKETS];
+    private long total, max;
+
+    static int bucket(long nanos){
+        if(nanos < SUB_BUCKETS)
+            return (int) Math.max(0, nanos);
+        int exp = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exp - 3)) & (SUB_BUCKETS - 1);
+        return exp * SUB_BUCKETS + sub;
+    }
+
+    // lower bound of the values that fall into a bucket
+    private static long bucketValue(int bucket){
+        if(bucket < SUB_BUCKETS)
+            return bucket;
+        int exp = bucket / SUB_BUCKETS, sub = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (exp - 3);
+    }
+
+    public void record(long nanos){
+        counts[bucket(nanos)]++;
+        total++;
+        max = Math.max(max, nanos);
+    }
+
+    public void merge(LatencyHistogram other){
+        for(int i=0;i<counts.length;i++)
+            counts[i] += other.counts[i];
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    // add counts per bucket collected elsewhere (see MinesMetrics)
+    void add(int bucket, long count, long maxValue){
+        counts[bucket] += count;
+        total += count;
+        max = Math.max(max, maxValue);
+    }
+
+    public long getCount(){return total;}
+    public long getMax(){return max;}
+
+    // value (ns) below which the given fraction of the recorded values fall
+    public long percentile(double fraction){
+        long rank = Math.max(1, (long) Math.ceil(fraction * total)), seen = 0;
+        for(int i=0;i<counts.length;i++){
+            seen += counts[i];
+            if(seen >= rank)
+                return Math.min(bucketValue(i), max);
+        }
+        return 0;
+    }
+
+    // percentiles in microseconds, for reports
+    public String toString(){
+        return String.format("p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f (us)",
+                percentile(0.5) / 1e3, percentile(0.9) / 1e3, percentile(0.99) / 1e3,
+                percentile(0.999) / 1e3, max / 1e3);
+    }
+}
@@ -0,0 +1,596 @@
+package mines;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+Mines: A class that defines the logic for the Minesweeper game.
+Defines a minefield of a user-defined size, where each cell can have some specific
+states: flagged,opened,mined.
+The game runs according to the infamous minesweeper game rules.
+This class supports creating a minefield, adding mines, toggling flags, opening cells, and
+showing the current state of the grid (minefield).
+In addition, this class supports a UI layer for the Minesweeper game.
+ */
+
+public class Mines {
+    // source of seeds for boards created without an explicit seed
+    private static final Random seeds = new Random();
+    private final int height,width, numMines;
+    // seed of this board, and the random generator created from it
+    // (same seed and same moves -> same board, for reproducing games)
+    private final long seed;
+    private final BoardRandom rnd;
+    private boolean showAll;
+    // cell states, one byte per cell (flattened with idxForSets):
+    // low 4 bits hold the mined-neighbor count, upper bits hold the state flags
+    // (package-private: ConcurrentMines uses the same layout)
+    static final byte COUNT_MASK = 15, MINE = 16, OPEN = 32, FLAG = 64;
+    // set while a cell is in the change log (so it is logged once between drains)
+    private static final byte LOGGED = (byte) 128;
+    private final byte[] cells;
+    // cell codes, as returned by code (a primitive form of get):
+    // 0-8 = open cell with that many mined neighbors, CODE_HIDDEN = closed cell,
+    // CODE_FLAG = flagged closed cell, CODE_MINE = open (or shown) mine
+    public static final byte CODE_HIDDEN = 9, CODE_FLAG = 10, CODE_MINE = 11;
+    // the symbol of each code (as in get and toString)
+    private static final char[] SYMBOL_CHARS = " 12345678.FX".toCharArray();
+    private static final String[] SYMBOLS = new String[SYMBOL_CHARS.length];
+    static {
+        for(int k=0;k<SYMBOLS.length;k++)
+            SYMBOLS[k] = String.valueOf(SYMBOL_CHARS[k]);
+    }
+    // running counts for O(1) win detection:
+    // number of mined cells, and number of opened cells without a mine
+    private int minedCells, openedSafeCells;
+    // cells whose visible state changed since the last drainChanges call,
+    // or a flag telling that every cell should be considered changed
+    private final CellList changes = new CellList();
+    private boolean allChanged;
+    // work stack for the flood fill in open (reused between calls)
+    private final CellList pending = new CellList();
+    // boards with at least this many cells run the flood fill of open in parallel
+    // (see ParallelReveal) - set with -Dmines.parallelReveal=cells or setParallelRevealThreshold
+    private static volatile int parallelRevealThreshold = Integer.getInteger("mines.parallelReveal", 1 << 22);
+
+    public Mines(int height, int width, int numMines){
+        this(height, width, numMines, seeds.nextLong());
+    }
+
+    public Mines(int height, int width, int numMines, long seed){
+        this(height, width, numMines, seed, true);
+    }
+
+    // package-private constructor that can skip mine placement
+    // (used when restoring a saved board, see MinesSnapshot)
+    Mines(int height, int width, int numMines, long seed, boolean placeMines){
+        long start = MinesMetrics.ENABLED ? System.nanoTime() : 0;
+        MinesEvents.BoardCreated event = MinesEvents.ENABLED ? new MinesEvents.BoardCreated() : null;
+        if(event != null)
+            event.begin();
+        // container for the mine states of every cell:
+        cells = new byte[height * width];
+        if(numMines > width * height){
+            numMines = width * height; // assumed maximum (can't have more mines than cells)
+        }
+        // initialize class variables
+        this.height = height;
+        this.width = width;
+        this.numMines = numMines;
+        this.seed = seed;
+        rnd = new BoardRandom(seed);
+        showAll = false;
+        // do not log changes while the board is being built
+        allChanged = true;
+        if(placeMines)
+            placeMines(numMines);
+        // a new board starts with an empty change log
+        // (a board being restored keeps logging off until clearChanges)
+        allChanged = !placeMines;
+        if(MinesMetrics.ENABLED)
+            MinesMetrics.CONSTRUCT_TIME.record(System.nanoTime() - start);
+        if(event != null && event.shouldCommit()){
+            event.height = height;
+            event.width = width;
+            event.mines = numMines;
+            event.commit();
+        }
+    }
+
+    // copy constructor - an independent board in the same state, including the
+    // random generator (so later moveMine calls on both boards give the same result)
+    public Mines(Mines other){
+        height = other.height;
+        width = other.width;
+        numMines = other.numMines;
+        seed = other.seed;
+        rnd = new BoardRandom(0);
+        rnd.state = other.rnd.state;
+        showAll = other.showAll;
+        cells = other.copyCells();
+        minedCells = other.minedCells;
+        openedSafeCells = other.openedSafeCells;
+    }
+
+    // package-private: the state of a board alone (cells, counters and the random generator),
+    // without the change log and work lists - kept by MoveReplay for its checkpoints
+    static final class State {
+        private final int height, width, numMines;
+        private final long seed, random;
+        private final boolean showAll;
+        private final byte[] cells;
+        private final int minedCells, openedSafeCells;
+
+        private State(Mines board){
+            height = board.height;
+            width = board.width;
+            numMines = board.numMines;
+            seed = board.seed;
+            random = board.rnd.state;
+            showAll = board.showAll;
+            cells = board.copyCells();
+            minedCells = board.minedCells;
+            openedSafeCells = board.openedSafeCells;
+        }
+    }
+
+    State saveState(){
+        return new State(this);
+    }
+
+    // a board in a saved state (the state can be restored again)
+    Mines(State state){
+        height = state.height;
+        width = state.width;
+        numMines = state.numMines;
+        seed = state.seed;
+        rnd = new BoardRandom(0);
+        rnd.state = state.random;
+        showAll = state.showAll;
+        cells = state.cells.clone();
+        minedCells = state.minedCells;
+        openedSafeCells = state.openedSafeCells;
+    }
+
+    // the random generator of a board: the same sequence as java.util.Random
+    // (so a seed gives the same board as before), with its state readable, so that
+    // copies and saved boards (MinesSnapshot) continue the same sequence
+    private static final class BoardRandom extends Random {
+        private static final long serialVersionUID = 1L;
+        private static final long MULTIPLIER = 0x5DEECE66DL, ADDEND = 0xBL, MASK = (1L << 48) - 1;
+        private long state;
+
+        private BoardRandom(long seed){
+            super(seed); // calls setSeed
+        }
+
+        @Override
+        public synchronized void setSeed(long seed){
+            state = (seed ^ MULTIPLIER) & MASK;
+        }
+
+        @Override
+        protected int next(int bits){
+            state = (state * MULTIPLIER + ADDEND) & MASK;
+            return (int) (state >>> (48 - bits));
+        }
+    }
+
+    // helper method for placing mines at uniformly random cells
+    // (Floyd's sampling: exactly one random draw per mine, no retries,
+    // so the cost does not grow as the mine density approaches 100%)
+    private void placeMines(int count){
+        int n = cells.length;
+        for(int j=n-count;j<n;j++){
+            int t = rnd.nextInt(j + 1);
+            // if t was already chosen, choose j (which can't have been chosen yet)
+            int cell = (cells[t] & MINE) != 0 ? j : t;
+            addMine(cell / width, cell % width);
+        }
+    }
+
+    // getters for the minefield dimensions and mine count
+    public int getHeight(){return height;}
+    public int getWidth(){return width;}
+    public int getNumMines(){return numMines;}
+    public long getSeed(){return seed;}
+    // number of opened (safe) cells
+    public int getOpenedCells(){return openedSafeCells;}
+    public boolean isShowAll(){return showAll;}
+
+    public static int getParallelRevealThreshold(){return parallelRevealThreshold;}
+    public static void setParallelRevealThreshold(int cells){
+        parallelRevealThreshold = cells;
+    }
+
+    // package-private access to the state of the random generator (48 bits, used by MinesSnapshot)
+    long randomState(){return rnd.state;}
+    void restoreRandomState(long state){
+        rnd.state = state & BoardRandom.MASK;
+    }
+
+    // package-private access to the state flags of a cell by flattened index,
+    // as a combination of STATE_MINE, STATE_OPEN and STATE_FLAG (used by MinesSnapshot)
+    static final int STATE_MINE = MINE >> 4, STATE_OPEN = OPEN >> 4, STATE_FLAG = FLAG >> 4;
+    int stateOf(int cell){
+        return (cells[cell] >> 4) & 7;
+    }
+    // restore the state flags of a cell on a board built without mine placement
+    void restoreState(int cell, int state){
+        int x = cell / width, y = cell % width;
+        if((state & STATE_MINE) != 0)
+            addMine(x,y);
+        if((state & STATE_OPEN) != 0)
+            setCellOpen(x,y);
+        if((state & STATE_FLAG) != 0)
+            set(x,y,FLAG);
+    }
+    // forget the changes made while restoring (a restored board starts with an empty log)
+    void clearChanges(){
+        forgetChanges();
+        allChanged = false;
+    }
+    // copy of the raw cell bytes, without the change log marks (package-private, used by ConcurrentMines)
+    byte[] copyCells(){
+        byte[] copy = cells.clone();
+        for(int k=0;k<changes.size();k++)
+            copy[changes.get(k)] &= ~LOGGED;
+        return copy;
+    }
+
+    // helper method to flatten (2D->1D) coordinates to an int value (index into cells)
+    private int idxForSets(int x, int y){
+        return x * width + y;
+    }
+
+    // helper method for recording a changed cell (for drainChanges)
+    // (a cell already in the log is not added again)
+    private void markChanged(int cell){
+        if(allChanged || (cells[cell] & LOGGED) != 0)
+            return;
+        // do not let the log grow past a fraction of the board size if nobody drains it
+        // (past that point refreshing every cell is about as cheap anyway)
+        if(changes.size() >= Math.max(64, cells.length / 8)){
+            forgetChanges();
+            allChanged = true;
+            return;
+        }
+        cells[cell] |= LOGGED;
+        changes.add(cell);
+    }
+
+    // helper method for emptying the change log (and clearing the marks of its cells)
+    private void forgetChanges(){
+        for(int k=0;k<changes.size();k++)
+            cells[changes.get(k)] &= ~LOGGED;
+        changes.clear();
+    }
+
+    // move the cells changed since the last call into the given list.
+    // returns true if every cell should be treated as changed
+    // (in which case nothing is added to the list)
+    public boolean drainChanges(CellList out){
+        boolean all = allChanged;
+        if(!all){
+            for(int k=0;k<changes.size();k++)
+                out.add(changes.get(k));
+        }
+        forgetChanges();
+        allChanged = false;
+        return all;
+    }
+
+    // helper methods for reading and writing state bits of a cell
+    private boolean test(int x, int y, byte bit){
+        return (cells[idxForSets(x,y)] & bit) != 0;
+    }
+    private void set(int x, int y, byte bit){
+        cells[idxForSets(x,y)] |= bit;
+    }
+    private void clear(int x, int y, byte bit){
+        cells[idxForSets(x,y)] &= ~bit;
+    }
+
+    // protected helper methods used for logic-UI communication
+    protected boolean hasMine(int x, int y){
+        return test(x,y,MINE); // check if cell has mine
+    }
+    protected boolean isOpen(int x, int y){
+        return test(x,y,OPEN); // check if cell is open
+    }
+    protected boolean isFlagged(int x, int y) {
+        return test(x,y,FLAG); // check if cell is flagged
+    }
+
+    // protected method for classic minesweeper concept - in UI version:
+    // do not allow first click to set a mine
+    // returns the (flattened) cell the mine moved to, or -1 if it was removed
+    // (or there was no mine to move) - callers that only need the move can ignore it
+    protected int moveMine(int x, int y){
+        // place the mine someplace else
+        if(!hasMine(x,y))
+            return -1;
+        // do not allow first click to be a mine,
+        // remove it if mines are everywhere
+        // else, swap it with an empty location
+        int free = cells.length - minedCells;
+        removeMine(x,y);
+        if(free == 0)
+            return -1;
+        int cell;
+        if(free * 2 >= cells.length){
+            // at least half of the cells are free - expect at most two draws
+            do{
+                cell = rnd.nextInt(cells.length);
+            }while((cells[cell] & MINE) != 0 || cell == idxForSets(x,y));
+        }
+        else{
+            // dense board - pick the r-th free cell (the board has less than
+            // twice as many cells as mines, so the scan is O(numMines))
+            int r = rnd.nextInt(free);
+            cell = -1;
+            do{
+                cell++;
+                if((cells[cell] & MINE) == 0 && cell != idxForSets(x,y))
+                    r--;
+            }while(r >= 0);
+        }
+        addMine(cell / width, cell % width);
+        return cell;
+    }
+
+    // helper method for opening a cell
+    private boolean setCellOpen(int x, int y){
+        if (isOpen(x,y))
+            return false;
+        set(x,y,OPEN);
+        if(!hasMine(x,y))
+            openedSafeCells++;
+        return true;
+    }
+
+    // check if a coordinate tuple is inside the grid
+    private boolean inBound(int x, int y){
+        return x>=0 && x<height && y>=0 && y<width;
+    }
+
+    // add a mine to the grid
+    public boolean addMine(int i, int j){
+        // returns true if succeeded, else (mine already exists) false
+        if(hasMine(i,j))
+            return false;
+        // set mine
+        set(i,j,MINE);
+        // a closed cell looks the same with or without a mine
+        if(showAll || isOpen(i,j))
+            markChanged(idxForSets(i,j));
+        updateNeighborCounts(i,j,1);
+        minedCells++;
+        if(isOpen(i,j))
+            openedSafeCells--;
+        return true;
+    }
+
+    // helper method for removing a mine from the grid
+    private void removeMine(int i, int j){
+        if(!hasMine(i,j))
+            return;
+        clear(i,j,MINE);
+        if(showAll || isOpen(i,j))
+            markChanged(idxForSets(i,j));
+        updateNeighborCounts(i,j,-1);
+        minedCells--;
+        if(isOpen(i,j))
+            openedSafeCells++;
+    }
+
+    // helper method for keeping the stored neighbor counts in sync
+    // when a mine is added (delta=1) or removed (delta=-1)
+    private void updateNeighborCounts(int x, int y, int delta){
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                // if cell exists and is not the origin cell
+                if(inBound(i,j) && (i!=x || j != y)){
+                    int cell = idxForSets(i,j);
+                    cells[cell] += delta;
+                    // only a shown cell without a mine shows its count
+                    if((cells[cell] & MINE) == 0 && (showAll || (cells[cell] & OPEN) != 0))
+                        markChanged(cell);
+                }
+            }
+        }
+    }
+
+    // helper method for reading the number of mined neighbors
+    private int countMinedNeighbors(int x ,int y){
+        return cells[idxForSets(x,y)] & COUNT_MASK;
+    }
+
+    // open a cell in the specified coordinates
+    // -> open adjacent cells (flood fill)
+    // if all are found to be free of mines
+    public boolean open(int i, int j){
+        return open(i, j, null);
+    }
+
+    // open a cell and report every revealed cell (flattened index, see getWidth)
+    // to the given list (may be null). The flood fill uses an explicit stack,
+    // so large empty regions do not overflow the call stack.
+    public boolean open(int i, int j, CellList revealed){
+        long start = MinesMetrics.ENABLED ? System.nanoTime() : 0;
+        MinesEvents.Open event = MinesEvents.ENABLED ? new MinesEvents.Open() : null;
+        if(event != null)
+            event.begin();
+        int before = openedSafeCells;
+        boolean opened = reveal(i, j, revealed);
+        if(MinesMetrics.ENABLED){
+            MinesMetrics.OPEN_TIME.record(System.nanoTime() - start);
+            MinesMetrics.OPEN_CELLS.record(openedSafeCells - before);
+        }
+        if(event != null && event.shouldCommit()){
+            event.x = i;
+            event.y = j;
+            event.cells = openedSafeCells - before;
+            event.commit();
+        }
+        return opened;
+    }
+
+    // helper method for open (the cell and its flood fill)
+    private boolean reveal(int i, int j, CellList revealed){
+        // this method returns false if cell was already open (requirement)
+        if(hasMine(i,j) || !(setCellOpen(i,j)))
+            return false;
+        int origin = idxForSets(i,j);
+        markChanged(origin);
+        if(revealed != null)
+            revealed.add(origin);
+        // cells with no mined neighbors are pushed to have their neighbors opened
+        if(countMinedNeighbors(i,j) == 0)
+            pending.add(origin);
+        if(!pending.isEmpty() && cells.length >= parallelRevealThreshold
+                && ForkJoinPool.getCommonPoolParallelism() > 1){
+            parallelFlood(revealed);
+            return true;
+        }
+        while(!pending.isEmpty()){
+            int cell = pending.pop();
+            int x = cell / width, y = cell % width;
+            for(int r=x-1;r<x+2;r++){
+                for(int c=y-1;c<y+2;c++){
+                    // if cell exists, is not mined, and was not open before
+                    if(inBound(r,c) && !hasMine(r,c) && setCellOpen(r,c)){
+                        markChanged(idxForSets(r,c));
+                        if(revealed != null)
+                            revealed.add(idxForSets(r,c));
+                        if(countMinedNeighbors(r,c) == 0)
+                            pending.add(idxForSets(r,c));
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // helper method for open: flood fill from the pending cells on the common ForkJoinPool
+    // (opens the same cells as the sequential loop, in a different order)
+    private void parallelFlood(CellList revealed){
+        // list the opened cells only as far as the change log (or the caller) needs them
+        int logLimit = revealed != null ? Integer.MAX_VALUE
+                : allChanged ? 0 : Math.max(64, cells.length / 8) - changes.size();
+        CellList work = new CellList(pending.size());
+        work.addAll(pending);
+        pending.clear();
+        ParallelReveal task = new ParallelReveal(cells, height, width, work, logLimit);
+        ForkJoinPool.commonPool().invoke(task);
+        openedSafeCells += task.opened;
+        if(revealed != null)
+            revealed.addAll(task.log);
+        if(task.overflow || task.log.size() >= logLimit){
+            forgetChanges();
+            allChanged = true;
+        }
+        else{
+            for(int k=0;k<task.log.size();k++)
+                markChanged(task.log.get(k));
+        }
+    }
+
+    // toggle flag on or off
+    public void toggleFlag(int x, int y){
+        // flip the flag bit of the cell
+        cells[idxForSets(x,y)] ^= FLAG;
+        // the flag only shows on a closed cell
+        if(!showAll && !isOpen(x,y))
+            markChanged(idxForSets(x,y));
+    }
+
+    // check if game has been won -> no unopened un-mined cells exist
+    // (all safe cells are open - compared using the running counters)
+    public boolean isDone(){
+        if(MinesMetrics.ENABLED)
+            MinesMetrics.IS_DONE_CALLS.increment();
+        return openedSafeCells == cells.length - minedCells;
+    }
+
+    public String get(int i, int j){
+        // the symbol of the cell's code (shared strings, nothing is allocated)
+        return SYMBOLS[code(i,j)];
+    }
+
+    // get the code of a cell (see CODE_HIDDEN) - the visible state, like get
+    public byte code(int i, int j){
+        return codeOf(cells[idxForSets(i,j)], showAll);
+    }
+
+    // helper method for turning a cell byte into its code
+    // (package-private: ConcurrentMines and EndlessMines use the same cell layout)
+    static byte codeOf(byte cell, boolean showAll){
+        // check if all cells are shown, or the cell has already been opened
+        if(showAll || (cell & OPEN) != 0)
+            return (cell & MINE) != 0 ? CODE_MINE : (byte) (cell & COUNT_MASK);
+        // if cell is closed, hide it or show its flag
+        return (cell & FLAG) != 0 ? CODE_FLAG : CODE_HIDDEN;
+    }
+
+    // symbol of a code (" " for 0, "1"-"8", "." hidden, "F" flag, "X" mine)
+    public static String symbol(byte code){
+        return SYMBOLS[code];
+    }
+
+    // the same symbol as a char (package-private, for the appendTo of the other boards)
+    static char symbolChar(byte code){
+        return SYMBOL_CHARS[code];
+    }
+
+    // copy the codes of a rectangle of cells into region (row by row, rows*cols codes)
+    public void fill(byte[] region, int row, int col, int rows, int cols){
+        if(row < 0 || col < 0 || rows < 0 || cols < 0 || row + rows > height || col + cols > width)
+            throw new IndexOutOfBoundsException("rectangle " + row + "," + col + " " + rows + "x" + cols
+                    + " outside of " + height + "x" + width);
+        if(region.length < rows * cols)
+            throw new IllegalArgumentException("region too small: " + region.length + " < " + rows * cols);
+        int k = 0;
+        for(int i=row;i<row+rows;i++){
+            int start = idxForSets(i,col);
+            for(int cell=start;cell<start+cols;cell++)
+                region[k++] = codeOf(cells[cell], showAll);
+        }
+    }
+
+    // public method to show all grid cells
+    public void setShowAll(boolean showAll){
+        if(this.showAll != showAll)
+            allChanged = true; // every hidden cell changes its look
+        this.showAll = showAll;
+    }
+
+    // write the entire grid to out (the toString format: one line of symbols per row)
+    public void appendTo(Appendable out) throws IOException {
+        // one row at a time from a reused buffer
+        char[] row = new char[width + 1];
+        row[width] = '\n';
+        CharBuffer line = CharBuffer.wrap(row);
+        for(int i=0;i<height;i++){
+            int start = idxForSets(i,0);
+            for(int j=0;j<width;j++)
+                row[j] = SYMBOL_CHARS[codeOf(cells[start + j], showAll)];
+            out.append(line, 0, row.length);
+        }
+    }
+
+    // public method to get the entire grid as a string
+    public String toString(){
+        StringBuilder b = new StringBuilder(height * (width + 1));
+        try{
+            appendTo(b);
+        }catch(IOException e){
+            throw new UncheckedIOException(e); // StringBuilder does not throw
+        }
+        return b.toString();
+    }
+
+}
@@ -0,0 +1,82 @@
+package mines;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/*
+MinesEvents: JDK Flight Recorder events for the game operations.
+They are created only when the JVM runs with -Dmines.events=true, and recorded only while
+a recording enables them, for example:
+  java -Dmines.events=true -XX:StartFlightRecording:filename=mines.jfr,settings=profile ...
+and show up under "Minesweeper" in JDK Mission Control (or with `jfr print --events
+mines.Open mines.jfr`). Emitted by Mines and MinesweeperController. The frequent events
+(board creation, open) are recorded without stack traces.
+The switch is a static final field, like MinesMetrics.ENABLED: with events off, the hot
+paths (open, board creation) allocate no event objects, and no event class is registered
+with JFR, which loads and generates classes at startup.
+ */
+
+public final class MinesEvents {
+    public static final boolean ENABLED = Boolean.getBoolean("mines.events");
+
+    private MinesEvents(){}
+
+    @Name("mines.BoardCreated")
+    @Label("Board Created")
+    @Category("Minesweeper")
+    @StackTrace(false)
+    public static class BoardCreated extends Event {
+        @Label("Height")
+        public int height;
+        @Label("Width")
+        public int width;
+        @Label("Mines")
+        public int mines;
+    }
+
+    @Name("mines.Open")
+    @Label("Open")
+    @Category("Minesweeper")
+    @StackTrace(false)
+    public static class Open extends Event {
+        @Label("Row")
+        public int x;
+        @Label("Column")
+        public int y;
+        @Label("Cells Revealed")
+        public int cells;
+    }
+
+    @Name("mines.Refresh")
+    @Label("Board Refresh")
+    @Category("Minesweeper")
+    public static class Refresh extends Event {
+        @Label("Tiles Updated")
+        public int tiles;
+    }
+
+    @Name("mines.Reset")
+    @Label("Reset")
+    @Category("Minesweeper")
+    public static class Reset extends Event {
+        @Label("Cells")
+        public long cells;
+    }
+
+    @Name("mines.Click")
+    @Label("Click")
+    @Category("Minesweeper")
+    public static class Click extends Event {
+        @Label("Row")
+        public int x;
+        @Label("Column")
+        public int y;
+        @Label("Allocated")
+        @DataAmount
+        public long allocated;
+    }
+}
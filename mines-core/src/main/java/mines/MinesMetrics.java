@@ -0,0 +1,120 @@
+package mines;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+MinesMetrics: Counters and histograms for the game operations (board construction,
+open, isDone, and the UI refresh/reset/click in MinesweeperController).
+Metrics are collected only when the JVM runs with -Dmines.metrics=true. The switch is
+a static final field, so with metrics off the JIT removes the measuring code entirely.
+With -Dmines.metrics.dump=seconds a report is printed to stderr periodically.
+Every metric can be recorded from any thread. For profiling with JDK Flight Recorder,
+see MinesEvents (those are emitted with -Dmines.events=true).
+ */
+
+public final class MinesMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("mines.metrics");
+    // the JVM's per-thread allocation counters (null if it has none), looked up once
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationCounters();
+
+    // a distribution of values (durations in nanoseconds, or plain amounts)
+    public static final class Metric {
+        private final String name;
+        private final boolean nanos;
+        private final AtomicLongArray buckets = new AtomicLongArray(LatencyHistogram.BUCKETS);
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private Metric(String name, boolean nanos){
+            this.name = name;
+            this.nanos = nanos;
+            METRICS.add(this);
+        }
+
+        public void record(long value){
+            buckets.incrementAndGet(LatencyHistogram.bucket(value));
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        // copy of the values recorded so far
+        public LatencyHistogram snapshot(){
+            LatencyHistogram h = new LatencyHistogram();
+            long top = max.get();
+            for(int i=0;i<LatencyHistogram.BUCKETS;i++){
+                long count = buckets.get(i);
+                if(count != 0)
+                    h.add(i, count, top);
+            }
+            return h;
+        }
+
+        private String report(){
+            LatencyHistogram h = snapshot();
+            long n = h.getCount();
+            if(n == 0)
+                return String.format("%-16s n=0", name);
+            double scale = nanos ? 1e3 : 1, mean = sum.sum() / (double) n / scale;
+            return String.format("%-16s n=%d, mean %.1f, p50 %.1f, p99 %.1f, max %.1f%s", name, n, mean,
+                    h.percentile(0.5) / scale, h.percentile(0.99) / scale, h.getMax() / scale, nanos ? " (us)" : "");
+        }
+    }
+
+    private static final List<Metric> METRICS = new ArrayList<>();
+
+    // Mines
+    public static final Metric CONSTRUCT_TIME = new Metric("construct.time", true);
+    public static final Metric OPEN_TIME = new Metric("open.time", true);
+    public static final Metric OPEN_CELLS = new Metric("open.cells", false);
+    public static final LongAdder IS_DONE_CALLS = new LongAdder();
+    // UI (MinesweeperController)
+    public static final Metric REFRESH_TIME = new Metric("refresh.time", true);
+    public static final Metric REFRESH_TILES = new Metric("refresh.tiles", false);
+    public static final Metric RESET_TIME = new Metric("reset.time", true);
+    public static final Metric CLICK_BYTES = new Metric("click.bytes", false);
+
+    private static final long START = System.nanoTime();
+
+    static {
+        long period = Long.getLong("mines.metrics.dump", 0);
+        if(ENABLED && period > 0){
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+            dumper.scheduleAtFixedRate(() -> System.err.print(report()), period, period, TimeUnit.SECONDS);
+        }
+    }
+
+    private MinesMetrics(){}
+
+    // bytes allocated so far by the current thread (-1 if the JVM can't tell)
+    // (difference of two calls = allocation of the code in between)
+    public static long allocatedBytes(){
+        return ALLOCATIONS == null ? -1 : ALLOCATIONS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounters(){
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) threads : null;
+    }
+
+    // all metrics as text
+    public static String report(){
+        StringBuilder b = new StringBuilder();
+        b.append(String.format("mines metrics after %.1f s%n", (System.nanoTime() - START) / 1e9));
+        for(Metric m : METRICS)
+            b.append("  ").append(m.report()).append('\n');
+        b.append(String.format("  %-16s n=%d%n", "isDone.calls", IS_DONE_CALLS.sum()));
+        return b.toString();
+    }
+}
@@ -0,0 +1,638 @@
+package mines;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+MinesProbability: The exact mine probability of every hidden cell of a Mines board,
+given what the player can see (the open numbers and the total number of mines).
+Flags are the player's guesses, not information, so flagged cells count as hidden.
+Hidden cells next to open numbers (the frontier) are split into independent components
+(cells linked through shared numbers). Each component's layouts are enumerated once and
+summarized as: number of layouts per mine count, and per cell, the layouts in which it is
+mined. Components are combined with the hidden cells away from the numbers (the interior,
+which share one probability) through the total mine count.
+Before that, cells decided by a single number (all of its mines found, or all of its
+hidden cells needed) are settled, which cuts long frontiers into small components.
+update(changed, affected) takes the cells the board reported as changed (Mines.drainChanges)
+and only looks at them and what is around them: their roles are updated, new numbers are
+settled, and only components that contain, or border, a cell that changed (or got
+settled) are enumerated again - the others are reused. Opening cells only adds
+information, so cells settled before stay settled. update() re-reads the whole board
+(for the first update, or when the board reported every cell as changed).
+A component too large to enumerate (MAX_EXACT_CELLS, NODE_BUDGET) gets local estimates
+instead, and isExact() is false.
+ */
+
+public class MinesProbability {
+    // limits for enumerating a component
+    private static final int MAX_EXACT_CELLS = 100;
+    private static final long NODE_BUDGET = 1L << 19;
+    // what a cell is for the calculation (SAFE and MINE are settled frontier cells)
+    private static final byte OPEN = 0, FRONTIER = 1, INTERIOR = 2, SAFE = 3, MINE = 4;
+
+    // a group of frontier cells linked through the numbers around them
+    private static final class Component {
+        private final int[] cells;
+        // ways[k]: layouts of the component with k mines
+        private double[] ways;
+        // mineWays[i * (cells.length + 1) + k]: those layouts in which cells[i] is mined
+        private double[] mineWays;
+        // local estimates per cell (only for components that were too large to enumerate)
+        private double[] estimate;
+        // set when a change next to the component makes it be built again
+        private boolean stale;
+
+        private Component(int[] cells){
+            this.cells = cells;
+        }
+    }
+
+    private final Mines mines;
+    private final int height, width, numMines;
+    private final byte[] codes, role;
+    // cells around a change since the last update
+    private final boolean[] dirty;
+    // numbers waiting to be checked for settled cells
+    private final boolean[] queued;
+    // index of each number around the component being enumerated (-1 between enumerations)
+    private final int[] numberIndex;
+    private final CellList pendingNumbers = new CellList();
+    private final CellList dirtyCells = new CellList();
+    // cells whose code changed, and cells whose role changed, in the current update
+    private final CellList changedCodes = new CellList();
+    private final CellList changedRoles = new CellList();
+    // frontier cells of the components being built again
+    private final CellList rebuild = new CellList();
+    // component of each frontier cell
+    private final Component[] owner;
+    private final List<Component> components = new ArrayList<>();
+    private final float[] probability;
+    private double interiorProbability;
+    private int interiorCells, settledMines, recomputed;
+    private boolean exact;
+
+    public MinesProbability(Mines mines){
+        this.mines = mines;
+        height = mines.getHeight();
+        width = mines.getWidth();
+        numMines = mines.getNumMines();
+        int cells = height * width;
+        codes = new byte[cells];
+        role = new byte[cells];
+        dirty = new boolean[cells];
+        queued = new boolean[cells];
+        numberIndex = new int[cells];
+        Arrays.fill(numberIndex, -1);
+        owner = new Component[cells];
+        probability = new float[cells];
+        // start from a board with every cell hidden (update() reads the real one)
+        Arrays.fill(codes, Mines.CODE_HIDDEN);
+        reset();
+    }
+
+    // mine probability of a cell (-1 for open cells)
+    public double get(int x, int y){
+        int cell = x * width + y;
+        switch(role[cell]){
+            case FRONTIER: return probability[cell];
+            case INTERIOR: return interiorProbability;
+            case SAFE: return 0;
+            case MINE: return 1;
+            default: return -1;
+        }
+    }
+
+    // the probability shared by every hidden cell away from the numbers
+    public double getInteriorProbability(){return interiorProbability;}
+    // false if some component was estimated instead of enumerated
+    public boolean isExact(){return exact;}
+    public int getComponentCount(){return components.size();}
+    // components enumerated by the last update (the rest came from the cache)
+    public int getRecomputedCount(){return recomputed;}
+
+    private boolean inBound(int x, int y){
+        return x>=0 && x<height && y>=0 && y<width;
+    }
+
+    private static boolean hidden(byte code){
+        return code == Mines.CODE_HIDDEN;
+    }
+
+    // the code of a cell as the calculation sees it (a flag is no information)
+    private byte visibleCode(int cell){
+        byte code = mines.code(cell / width, cell % width);
+        return code == Mines.CODE_FLAG ? Mines.CODE_HIDDEN : code;
+    }
+
+    // helper method for forgetting every role (all cells interior, nothing settled)
+    private void reset(){
+        Arrays.fill(role, INTERIOR);
+        Arrays.fill(owner, null);
+        components.clear();
+        interiorCells = codes.length;
+        settledMines = 0;
+    }
+
+    // re-read the whole board and recompute what changed
+    public void update(){
+        changedCodes.clear();
+        boolean closed = false;
+        for(int cell=0;cell<codes.length;cell++){
+            byte code = visibleCode(cell);
+            if(code != codes[cell]){
+                closed |= hidden(code);
+                codes[cell] = code;
+                changedCodes.add(cell);
+            }
+        }
+        if(closed)
+            restart();
+        apply(null);
+    }
+
+    // recompute after a move, given the cells the board reported as changed since the last
+    // update (see Mines.drainChanges). Cells whose probability changed are added to affected
+    // (may be null), except for the interior cells, which all get getInteriorProbability().
+    // Returns true if the whole board was read again (a cell was hidden again) - then
+    // every cell may have changed.
+    public boolean update(CellList changed, CellList affected){
+        changedCodes.clear();
+        for(int k=0;k<changed.size();k++){
+            int cell = changed.get(k);
+            byte code = visibleCode(cell);
+            if(code == codes[cell])
+                continue; // e.g. a flag
+            if(hidden(code)){
+                update();
+                return true;
+            }
+            codes[cell] = code;
+            changedCodes.add(cell);
+        }
+        apply(affected);
+        return false;
+    }
+
+    // helper method for starting over from the codes (when a cell was hidden again,
+    // cells settled before may no longer be decided)
+    private void restart(){
+        reset();
+        changedCodes.clear();
+        for(int cell=0;cell<codes.length;cell++){
+            if(!hidden(codes[cell]))
+                changedCodes.add(cell);
+        }
+    }
+
+    // helper method for updating everything from the cells in changedCodes
+    private void apply(CellList affected){
+        changedRoles.clear();
+        // the changed cells and their neighbors may have a new role
+        for(int k=0;k<changedCodes.size();k++){
+            int cell = changedCodes.get(k);
+            markDirty(cell);
+            int x = cell / width, y = cell % width;
+            for(int i=x-1;i<x+2;i++){
+                for(int j=y-1;j<y+2;j++){
+                    if(inBound(i,j))
+                        classify(i * width + j);
+                }
+            }
+        }
+        settle();
+        buildComponents();
+        for(int k=0;k<dirtyCells.size();k++)
+            dirty[dirtyCells.get(k)] = false;
+        dirtyCells.clear();
+        combine(affected);
+        if(affected != null)
+            affected.addAll(changedRoles);
+    }
+
+    // helper method for the role of a cell after its code (or a neighbor's) changed
+    private void classify(int cell){
+        byte r = role[cell];
+        if(!hidden(codes[cell]))
+            r = OPEN;
+        else if(r == INTERIOR && hasOpenNeighbor(cell))
+            r = FRONTIER;
+        // (settled cells stay settled, and frontier cells keep their open neighbors)
+        setRole(cell, r);
+    }
+
+    // helper method for changing the role of a cell (and everything that depends on it)
+    private void setRole(int cell, byte r){
+        byte old = role[cell];
+        if(old == r)
+            return;
+        role[cell] = r;
+        if(old == INTERIOR) interiorCells--;
+        if(r == INTERIOR) interiorCells++;
+        if(old == MINE) settledMines--;
+        if(r == MINE) settledMines++;
+        changedRoles.add(cell);
+        markDirty(cell);
+        queueNumbersAround(cell);
+    }
+
+    // helper method for settling the frontier cells decided by a single number
+    // (repeated until nothing changes, as every settled cell changes the numbers around it)
+    private void settle(){
+        while(!pendingNumbers.isEmpty()){
+            int number = pendingNumbers.pop();
+            queued[number] = false;
+            int x = number / width, y = number % width, open = 0, mined = 0;
+            for(int i=x-1;i<x+2;i++){
+                for(int j=y-1;j<y+2;j++){
+                    if(!inBound(i,j))
+                        continue;
+                    byte r = role[i * width + j];
+                    if(r == FRONTIER) open++;
+                    if(r == MINE) mined++;
+                }
+            }
+            int need = codes[number] - mined;
+            if(open == 0 || (need != 0 && need != open))
+                continue;
+            for(int i=x-1;i<x+2;i++){
+                for(int j=y-1;j<y+2;j++){
+                    int cell = i * width + j;
+                    if(inBound(i,j) && role[cell] == FRONTIER)
+                        setRole(cell, need == 0 ? SAFE : MINE);
+                }
+            }
+        }
+    }
+
+    private void queueNumbersAround(int cell){
+        int x = cell / width, y = cell % width;
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                int number = i * width + j;
+                if(inBound(i,j) && role[number] == OPEN && !queued[number]){
+                    queued[number] = true;
+                    pendingNumbers.add(number);
+                }
+            }
+        }
+    }
+
+    // helper method for marking a changed (or newly settled) cell and its neighbors
+    private void markDirty(int cell){
+        int x = cell / width, y = cell % width;
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                if(inBound(i,j) && !dirty[i * width + j]){
+                    dirty[i * width + j] = true;
+                    dirtyCells.add(i * width + j);
+                }
+            }
+        }
+    }
+
+    private boolean hasOpenNeighbor(int cell){
+        int x = cell / width, y = cell % width;
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                if(inBound(i,j) && !hidden(codes[i * width + j]))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    // helper method for dropping a component (its cells are built into new ones)
+    private void invalidate(Component c){
+        if(c == null || c.stale)
+            return;
+        c.stale = true;
+        for(int cell : c.cells){
+            owner[cell] = null;
+            rebuild.add(cell);
+        }
+    }
+
+    // helper method for building again the components next to the dirty cells
+    // (a component with no dirty cell, and no dirty number around it, is reused as it is)
+    private void buildComponents(){
+        recomputed = 0;
+        rebuild.clear();
+        for(int k=0;k<dirtyCells.size();k++){
+            int cell = dirtyCells.get(k);
+            if(role[cell] == FRONTIER)
+                rebuild.add(cell);
+            // a dirty number changes the components around it, any other cell only its own
+            int x = cell / width, y = cell % width, reach = role[cell] == OPEN ? 1 : 0;
+            for(int i=x-reach;i<=x+reach;i++){
+                for(int j=y-reach;j<=y+reach;j++){
+                    if(inBound(i,j))
+                        invalidate(owner[i * width + j]);
+                }
+            }
+        }
+        components.removeIf(c -> c.stale);
+        CellList members = new CellList();
+        Component marker = new Component(null);
+        for(int k=0;k<rebuild.size();k++){
+            int start = rebuild.get(k);
+            if(role[start] != FRONTIER || owner[start] != null)
+                continue;
+            // collect the component (frontier cells in breadth-first order)
+            members.clear();
+            members.add(start);
+            owner[start] = marker;
+            for(int q=0;q<members.size();q++){
+                int cell = members.get(q);
+                int x = cell / width, y = cell % width;
+                for(int i=x-1;i<x+2;i++){
+                    for(int j=y-1;j<y+2;j++){
+                        int number = i * width + j;
+                        if(!inBound(i,j) || role[number] != OPEN)
+                            continue;
+                        for(int r=i-1;r<i+2;r++){
+                            for(int c=j-1;c<j+2;c++){
+                                int n = r * width + c;
+                                if(inBound(r,c) && role[n] == FRONTIER && owner[n] == null){
+                                    owner[n] = marker;
+                                    members.add(n);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            Component component = new Component(members.toArray());
+            enumerate(component);
+            recomputed++;
+            for(int cell : component.cells)
+                owner[cell] = component;
+            components.add(component);
+        }
+    }
+
+    // helper method for enumerating the mine layouts of a component
+    private void enumerate(Component comp){
+        int n = comp.cells.length;
+        if(n <= MAX_EXACT_CELLS && new Enumerator(comp).run())
+            return;
+        // too large - estimate every cell locally, and the component's mine count from that
+        comp.mineWays = null;
+        comp.estimate = new double[n];
+        double sum = 0;
+        for(int i=0;i<n;i++){
+            comp.estimate[i] = localEstimate(comp.cells[i]);
+            sum += comp.estimate[i];
+        }
+        comp.ways = new double[n + 1];
+        comp.ways[(int) Math.max(0, Math.min(n, Math.round(sum)))] = 1;
+    }
+
+    // the highest ratio of missing mines to hidden cells among the numbers next to a cell
+    private double localEstimate(int cell){
+        int x = cell / width, y = cell % width;
+        double p = 0;
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                int number = i * width + j;
+                if(inBound(i,j) && role[number] == OPEN){
+                    int open = 0, need = codes[number];
+                    for(int r=i-1;r<i+2;r++){
+                        for(int c=j-1;c<j+2;c++){
+                            if(!inBound(r,c))
+                                continue;
+                            if(role[r * width + c] == FRONTIER) open++;
+                            if(role[r * width + c] == MINE) need--;
+                        }
+                    }
+                    p = Math.max(p, (double) need / open);
+                }
+            }
+        }
+        return Math.min(1, p);
+    }
+
+    // backtracking over the cells of a component (in breadth-first order, so the
+    // numbers around a cell are decided soon and bad branches are cut early)
+    private final class Enumerator {
+        private final Component comp;
+        private final int n;
+        // numbers around the component: mines still needed, and cells not decided yet
+        private final int[] need, free;
+        // numbers around each cell (indexes into need/free)
+        private final int[][] numbersOf;
+        private final boolean[] mined;
+        private final double[] ways, mineWays;
+        private int mineCount;
+        private long nodes;
+
+        private Enumerator(Component comp){
+            this.comp = comp;
+            n = comp.cells.length;
+            // index the numbers around the component
+            CellList numbers = new CellList();
+            int[] index = new int[n * 8];
+            int[] counts = new int[n];
+            for(int k=0;k<n;k++){
+                int cell = comp.cells[k];
+                int x = cell / width, y = cell % width;
+                for(int i=x-1;i<x+2;i++){
+                    for(int j=y-1;j<y+2;j++){
+                        int number = i * width + j;
+                        if(inBound(i,j) && role[number] == OPEN){
+                            if(numberIndex[number] < 0){
+                                numberIndex[number] = numbers.size();
+                                numbers.add(number);
+                            }
+                            index[k * 8 + counts[k]++] = numberIndex[number];
+                        }
+                    }
+                }
+            }
+            numbersOf = new int[n][];
+            for(int k=0;k<n;k++)
+                numbersOf[k] = Arrays.copyOfRange(index, k * 8, k * 8 + counts[k]);
+            need = new int[numbers.size()];
+            free = new int[numbers.size()];
+            for(int c=0;c<numbers.size();c++){
+                int number = numbers.get(c);
+                numberIndex[number] = -1; // ready for the next component
+                need[c] = codes[number];
+                int x = number / width, y = number % width;
+                for(int i=x-1;i<x+2;i++){
+                    for(int j=y-1;j<y+2;j++){
+                        if(!inBound(i,j))
+                            continue;
+                        if(role[i * width + j] == FRONTIER) free[c]++;
+                        if(role[i * width + j] == MINE) need[c]--;
+                    }
+                }
+            }
+            mined = new boolean[n];
+            ways = new double[n + 1];
+            mineWays = new double[n * (n + 1)];
+        }
+
+        // true if every layout was counted within the budget
+        private boolean run(){
+            if(!search(0))
+                return false;
+            comp.ways = ways;
+            comp.mineWays = mineWays;
+            comp.estimate = null;
+            return true;
+        }
+
+        private boolean search(int k){
+            if(++nodes > NODE_BUDGET)
+                return false;
+            if(k == n){
+                // every number is satisfied (need <= free = 0 was kept on the way)
+                ways[mineCount]++;
+                for(int i=0;i<n;i++){
+                    if(mined[i])
+                        mineWays[i * (n + 1) + mineCount]++;
+                }
+                return true;
+            }
+            int[] around = numbersOf[k];
+            boolean canBeSafe = true, canBeMine = true;
+            for(int c : around){
+                canBeSafe &= need[c] < free[c];
+                canBeMine &= need[c] > 0;
+            }
+            for(int c : around)
+                free[c]--;
+            if(canBeSafe && !search(k + 1))
+                return false;
+            if(canBeMine){
+                for(int c : around)
+                    need[c]--;
+                mined[k] = true;
+                mineCount++;
+                boolean done = search(k + 1);
+                mineCount--;
+                mined[k] = false;
+                for(int c : around)
+                    need[c]++;
+                if(!done)
+                    return false;
+            }
+            for(int c : around)
+                free[c]++;
+            return true;
+        }
+    }
+
+    // helper method for combining the components and the interior through the mine count
+    // (frontier cells whose probability changed are added to affected, if not null)
+    private void combine(CellList affected){
+        exact = true;
+        int count = components.size();
+        // mines left for the unsettled frontier and the interior
+        int remaining = numMines - settledMines;
+        // total frontier mines considered (can't be more than the mines on the board)
+        int total = 0;
+        for(Component c : components)
+            total += c.cells.length;
+        total = Math.max(0, Math.min(total, remaining));
+        // weight of leaving remaining - t mines for the interior, for t frontier mines
+        double[] interior = interiorWeights(total, remaining);
+        // suffix[i][u]: weight of components i.. holding some mines, given u mines before them
+        double[][] suffix = new double[count + 1][];
+        suffix[count] = interior;
+        for(int i=count-1;i>=0;i--){
+            double[] ways = components.get(i).ways, next = suffix[i + 1], s = new double[total + 1];
+            for(int u=0;u<=total;u++){
+                for(int k=0;k<ways.length && u + k <=total;k++)
+                    s[u] += ways[k] * next[u + k];
+            }
+            suffix[i] = normalize(s);
+        }
+        // prefix[t]: weight of the components before the current one holding t mines
+        double[] prefix = new double[total + 1];
+        prefix[0] = 1;
+        for(int i=0;i<count;i++){
+            Component comp = components.get(i);
+            double[] next = suffix[i + 1];
+            int n = comp.cells.length;
+            // g[k]: weight of everything else when this component holds k mines
+            double[] g = new double[n + 1];
+            for(int k=0;k<=n;k++){
+                for(int t=0;t + k<=total;t++)
+                    g[k] += prefix[t] * next[t + k];
+            }
+            double z = 0;
+            for(int k=0;k<=n;k++)
+                z += comp.ways[k] * g[k];
+            for(int j=0;j<n;j++){
+                double p;
+                if(comp.mineWays == null){
+                    p = comp.estimate[j];
+                    exact = false;
+                }
+                else{
+                    p = 0;
+                    for(int k=0;k<=n;k++)
+                        p += comp.mineWays[j * (n + 1) + k] * g[k];
+                    p = z > 0 ? p / z : 0;
+                }
+                int cell = comp.cells[j];
+                if(affected != null && probability[cell] != (float) p)
+                    affected.add(cell);
+                probability[cell] = (float) p;
+            }
+            // add this component to the prefix
+            double[] p = new double[total + 1];
+            for(int t=0;t<=total;t++){
+                if(prefix[t] == 0)
+                    continue;
+                for(int k=0;k<=n && t + k<=total;k++)
+                    p[t + k] += prefix[t] * comp.ways[k];
+            }
+            prefix = normalize(p);
+        }
+        // expected number of interior mines
+        double weight = 0, mines = 0;
+        for(int t=0;t<=total;t++){
+            double w = prefix[t] * interior[t];
+            weight += w;
+            mines += w * (remaining - t);
+        }
+        interiorProbability = interiorCells == 0 || weight == 0 ? 0 : mines / weight / interiorCells;
+    }
+
+    // relative number of ways to place remaining - t mines on the interior cells, for each t
+    // (binomial coefficients in log space, scaled so the largest is 1)
+    private double[] interiorWeights(int total, int remaining){
+        double[] log = new double[total + 1];
+        Arrays.fill(log, Double.NEGATIVE_INFINITY);
+        double lc = 0, max = Double.NEGATIVE_INFINITY; // log C(interiorCells, r)
+        int most = Math.min(remaining, interiorCells);
+        for(int r=0;r<=most;r++){
+            int t = remaining - r;
+            if(t >= 0 && t <= total){
+                log[t] = lc;
+                max = Math.max(max, lc);
+            }
+            lc += Math.log(interiorCells - r) - Math.log(r + 1);
+        }
+        double[] w = new double[total + 1];
+        for(int t=0;t<=total;t++)
+            w[t] = log[t] == Double.NEGATIVE_INFINITY ? 0 : Math.exp(log[t] - max);
+        return w;
+    }
+
+    // scale values so the largest is 1 (only ratios matter, this keeps them in range)
+    private static double[] normalize(double[] values){
+        double max = 0;
+        for(double v : values)
+            max = Math.max(max, v);
+        if(max > 0){
+            for(int k=0;k<values.length;k++)
+                values[k] /= max;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,122 @@
+package mines;
+
+import java.util.stream.LongStream;
+
+/*
+MinesSimulator: A headless batch runner for Minesweeper win-rate statistics.
+Plays many games of a given size and mine count with the MinesSolver bot, in parallel
+on all cores (parallel stream on the common fork-join pool). Every game uses its own
+Mines instance (confined to one thread) seeded from an independent stream derived
+from the run seed and the game number, so a run is reproducible.
+The first click follows the same rule as the UI (MinesweeperController): if it hits a
+mine, the mine is moved away (Mines.moveMine).
+Reports the win rate with a 95% confidence interval (Wilson score), the throughput
+(games/sec), and percentiles of the time it took to play a game.
+Usage: MinesSimulator height width mines games [seed]
+ */
+
+public class MinesSimulator {
+
+    // per-thread results, merged at the end of the run
+    private static class Stats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long games, wins, guesses;
+
+        private void add(boolean won, long guessCount, long nanos){
+            games++;
+            if(won) wins++;
+            guesses += guessCount;
+            latency.record(nanos);
+        }
+
+        private void merge(Stats other){
+            games += other.games;
+            wins += other.wins;
+            guesses += other.guesses;
+            latency.merge(other.latency);
+        }
+    }
+
+    // results of a simulation run
+    public static class Report {
+        public final long games, wins, guesses;
+        public final double winRate, ciLow, ciHigh, gamesPerSecond;
+        public final long p50Nanos, p90Nanos, p99Nanos, maxNanos;
+
+        private Report(Stats s, long elapsedNanos){
+            games = s.games;
+            wins = s.wins;
+            guesses = s.guesses;
+            winRate = games == 0 ? 0 : (double) wins / games;
+            // Wilson score interval (95%)
+            double z = 1.96, n = games;
+            double center = (winRate + z * z / (2 * n)) / (1 + z * z / n);
+            double half = z * Math.sqrt(winRate * (1 - winRate) / n + z * z / (4 * n * n)) / (1 + z * z / n);
+            ciLow = games == 0 ? 0 : center - half;
+            ciHigh = games == 0 ? 0 : center + half;
+            gamesPerSecond = games / (elapsedNanos / 1e9);
+            p50Nanos = s.latency.percentile(0.5);
+            p90Nanos = s.latency.percentile(0.9);
+            p99Nanos = s.latency.percentile(0.99);
+            maxNanos = s.latency.getMax();
+        }
+
+        public String toString(){
+            return String.format("games: %d, wins: %d, win rate: %.4f (95%% CI %.4f - %.4f)%n" +
+                            "guesses per game: %.2f, games/sec: %.0f%n" +
+                            "game time (us): p50 %.1f, p90 %.1f, p99 %.1f, max %.1f",
+                    games, wins, winRate, ciLow, ciHigh,
+                    games == 0 ? 0 : (double) guesses / games, gamesPerSecond,
+                    p50Nanos / 1e3, p90Nanos / 1e3, p99Nanos / 1e3, maxNanos / 1e3);
+        }
+    }
+
+    private final int height, width, numMines;
+
+    public MinesSimulator(int height, int width, int numMines){
+        this.height = height;
+        this.width = width;
+        this.numMines = numMines;
+    }
+
+    // derive an independent seed for each game (SplitMix64 finalizer)
+    // (package-private: NoGuessGenerator derives its candidate seeds the same way)
+    static long gameSeed(long seed, long game){
+        long z = seed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // play a number of games in parallel and collect the statistics
+    public Report run(long games, long seed){
+        long start = System.nanoTime();
+        Stats total = LongStream.range(0, games).parallel().collect(Stats::new, (stats, game) -> {
+            long t = System.nanoTime();
+            Mines mines = new Mines(height, width, numMines, gameSeed(seed, game));
+            // first click (the solver starts in the middle) never hits a mine
+            int x = height / 2, y = width / 2;
+            if(mines.hasMine(x, y))
+                mines.moveMine(x, y);
+            MinesSolver solver = new MinesSolver(mines);
+            boolean won = solver.solve() == MinesSolver.Result.WON;
+            stats.add(won, solver.getGuesses(), System.nanoTime() - t);
+        }, Stats::merge);
+        return new Report(total, System.nanoTime() - start);
+    }
+
+    public static void main(String[] args){
+        if(args.length < 4){
+            System.err.println("usage: MinesSimulator height width mines games [seed]");
+            System.exit(1);
+        }
+        int height = Integer.parseInt(args[0]);
+        int width = Integer.parseInt(args[1]);
+        int numMines = Integer.parseInt(args[2]);
+        long games = Long.parseLong(args[3]);
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        System.out.println("board " + height + "x" + width + ", " + numMines + " mines, seed " + seed +
+                ", " + Runtime.getRuntime().availableProcessors() + " cores");
+        System.out.println(new MinesSimulator(height, width, numMines).run(games, seed));
+    }
+}
@@ -0,0 +1,173 @@
+package mines;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+MinesSnapshot: Saves and loads a Mines board in a compact, versioned binary format.
+Layout (big-endian):
+  header (40 bytes): magic "MINE", format version, height, width, number of mines,
+                     seed, state of the random generator, showAll flag (+ padding)
+  cell states:       2 bits per cell (0 = hidden, 1 = open, 2 = flagged, 3 = open and
+                     flagged), 4 cells per byte
+  mine plane:        1 bit per cell, 8 cells per byte
+(a flagged cell may or may not hold a mine, so the mine bit needs its own plane).
+The random generator state makes a loaded board move its mines (Mines.moveMine) the same
+way the saved one would have. Version 1 files (32-byte header, no generator state, no
+open and flagged cells) still load, with the generator restarted from the seed.
+The cell data is written and read through memory-mapped windows of the file, straight
+between the mapping and the board, so large boards save and load at about disk speed
+without building a copy of the file on the heap.
+ */
+
+public class MinesSnapshot {
+    private static final int MAGIC = 0x4D494E45; // "MINE"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 40, HEADER_SIZE_V1 = 32;
+    // size of a mapped window of the file
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    // 2-bit cell states
+    private static final int HIDDEN = 0, OPENED = 1, FLAGGED = 2; // (3 = OPENED | FLAGGED)
+    // 2-bit cell state for each combination of Mines state flags
+    private static final int[] STATE_CODES = new int[8];
+    static {
+        for(int state=0;state<8;state++){
+            STATE_CODES[state] = ((state & Mines.STATE_OPEN) != 0 ? OPENED : HIDDEN)
+                    | ((state & Mines.STATE_FLAG) != 0 ? FLAGGED : HIDDEN);
+        }
+    }
+
+    private MinesSnapshot(){}
+
+    // a sequential view of a file region through consecutive mapped windows
+    private static class MappedRegion {
+        private final FileChannel channel;
+        private final FileChannel.MapMode mode;
+        private final long end;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        private MappedRegion(FileChannel channel, FileChannel.MapMode mode, long start, long length){
+            this.channel = channel;
+            this.mode = mode;
+            this.end = start + length;
+            windowStart = start;
+        }
+
+        private MappedByteBuffer window() throws IOException {
+            if(window == null || !window.hasRemaining()){
+                if(window != null)
+                    windowStart += window.capacity();
+                if(windowStart >= end)
+                    throw new IOException("unexpected end of snapshot data");
+                window = channel.map(mode, windowStart, Math.min(WINDOW_SIZE, end - windowStart));
+            }
+            return window;
+        }
+
+        private void put(byte b) throws IOException {
+            window().put(b);
+        }
+
+        private byte get() throws IOException {
+            return window().get();
+        }
+    }
+
+    // size in bytes of the cell state and mine planes
+    private static long statesSize(long cells){
+        return (cells + 3) / 4;
+    }
+    private static long minesSize(long cells){
+        return (cells + 7) / 8;
+    }
+
+    // save a board to a file (replacing it)
+    public static void save(Mines mines, Path file) throws IOException {
+        int cells = mines.getHeight() * mines.getWidth();
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION)
+                    .putInt(mines.getHeight()).putInt(mines.getWidth()).putInt(mines.getNumMines())
+                    .putLong(mines.getSeed()).putLong(mines.randomState())
+                    .put((byte) (mines.isShowAll() ? 1 : 0));
+            // cell states, 4 cells per byte
+            MappedRegion states = new MappedRegion(ch, FileChannel.MapMode.READ_WRITE, HEADER_SIZE, statesSize(cells));
+            for(int base=0;base<cells;base+=4){
+                int b = 0;
+                for(int k=0;k<4 && base+k<cells;k++)
+                    b |= STATE_CODES[mines.stateOf(base + k)] << (2 * k);
+                states.put((byte) b);
+            }
+            // mine plane, 8 cells per byte
+            MappedRegion mineBits = new MappedRegion(ch, FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + statesSize(cells), minesSize(cells));
+            for(int base=0;base<cells;base+=8){
+                int b = 0;
+                for(int k=0;k<8 && base+k<cells;k++)
+                    b |= (mines.stateOf(base + k) & Mines.STATE_MINE) << k;
+                mineBits.put((byte) b);
+            }
+        }
+    }
+
+    // load a board saved with save
+    public static Mines load(Path file) throws IOException {
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)){
+            if(ch.size() < HEADER_SIZE_V1)
+                throw new IOException("not a Minesweeper snapshot: " + file);
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE_V1);
+            if(header.getInt() != MAGIC)
+                throw new IOException("not a Minesweeper snapshot: " + file);
+            int version = header.getInt();
+            if(version != VERSION && version != 1)
+                throw new IOException("unsupported snapshot version " + version + ": " + file);
+            int headerSize = version == 1 ? HEADER_SIZE_V1 : HEADER_SIZE;
+            if(ch.size() < headerSize)
+                throw new IOException("corrupt snapshot: " + file);
+            header = ch.map(FileChannel.MapMode.READ_ONLY, 0, headerSize);
+            header.position(8);
+            int height = header.getInt(), width = header.getInt(), numMines = header.getInt();
+            long seed = header.getLong();
+            long randomState = version == 1 ? -1 : header.getLong();
+            boolean showAll = header.get() != 0;
+            if(height <= 0 || width <= 0 || (long) height * width > Integer.MAX_VALUE
+                    || ch.size() < headerSize + statesSize((long) height * width) + minesSize((long) height * width))
+                throw new IOException("corrupt snapshot: " + file);
+            int cells = height * width;
+            Mines mines = new Mines(height, width, numMines, seed, false);
+            if(version != 1)
+                mines.restoreRandomState(randomState);
+            // mines first (so open cells are counted as safe), then open/flag states
+            MappedRegion mineBits = new MappedRegion(ch, FileChannel.MapMode.READ_ONLY,
+                    headerSize + statesSize(cells), minesSize(cells));
+            for(int base=0;base<cells;base+=8){
+                int b = mineBits.get();
+                for(int k=0;b != 0 && k<8 && base+k<cells;k++){
+                    if((b & (1 << k)) != 0)
+                        mines.restoreState(base + k, Mines.STATE_MINE);
+                }
+            }
+            MappedRegion states = new MappedRegion(ch, FileChannel.MapMode.READ_ONLY, headerSize, statesSize(cells));
+            for(int base=0;base<cells;base+=4){
+                int b = states.get();
+                if(b == 0)
+                    continue; // four hidden cells
+                for(int k=0;k<4 && base+k<cells;k++){
+                    int code = (b >> (2 * k)) & 3;
+                    if(code != HIDDEN)
+                        mines.restoreState(base + k, ((code & OPENED) != 0 ? Mines.STATE_OPEN : 0)
+                                | ((code & FLAGGED) != 0 ? Mines.STATE_FLAG : 0));
+                }
+            }
+            mines.setShowAll(showAll);
+            mines.clearChanges();
+            return mines;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package mines;
+
+/*
+MinesSolver: A headless solver (bot) for the Minesweeper game.
+Plays against a Mines board through its public operations (code, open, toggleFlag),
+without any UI dependency. Each step it:
+ 1. applies moves already known to be safe / mined,
+ 2. deduces new moves with the single-cell rule (a number that is satisfied by its
+    flagged neighbors, or that needs all of its hidden neighbors to be mines),
+ 3. deduces new moves by comparing overlapping pairs of numbers (subset rule),
+ 4. if nothing can be deduced, guesses the hidden cell with the lowest estimated
+    mine probability (unless guessing is disabled).
+The solver works incrementally: only numbers whose neighborhood changed since the last
+step are re-examined, so the cost of a step does not depend on the board size.
+Flags found on the board are trusted to be mines.
+ */
+
+public class MinesSolver {
+
+    // result of a single step
+    public enum Result { OPENED, FLAGGED, GUESSED, WON, LOST, STUCK }
+
+    // what the solver knows about each cell
+    private static final byte UNKNOWN = 0, MINE = 1, OPEN = 2;
+    // bookkeeping bits per cell (avoid queueing a cell twice)
+    private static final byte IN_WORK = 1, IN_PAIR_WORK = 2, IN_MOVES = 4, IN_FRONTIER = 8;
+
+    private final Mines mines;
+    private final int height, width;
+    private final boolean allowGuess;
+    private final byte[] state, number, marks;
+    // numbers to re-examine with the single-cell rule and with the pair rule
+    private final CellList work = new CellList(), pairWork = new CellList();
+    // deduced moves that were not played yet
+    private final CellList safeCells = new CellList(), mineCells = new CellList();
+    // open numbers that may still have hidden neighbors (lazily cleaned up)
+    private final CellList frontier = new CellList();
+    private final CellList revealed = new CellList();
+    private int knownMines, unknownCells;
+    private int scanPos;
+    private int lastCell = -1;
+    private long guesses;
+
+    public MinesSolver(Mines mines){
+        this(mines, true);
+    }
+
+    public MinesSolver(Mines mines, boolean allowGuess){
+        this.mines = mines;
+        this.allowGuess = allowGuess;
+        height = mines.getHeight();
+        width = mines.getWidth();
+        state = new byte[height * width];
+        number = new byte[height * width];
+        marks = new byte[height * width];
+        unknownCells = state.length;
+        // read the current board once (the game may already be in progress)
+        for(int cell=0;cell<state.length;cell++)
+            refresh(cell);
+    }
+
+    // getters for the last played cell (flattened index) and number of guesses so far
+    public int getLastCell(){return lastCell;}
+    public long getGuesses(){return guesses;}
+
+    // re-read a cell from the board (call when the board was changed by someone else)
+    public void refresh(int cell){
+        byte code = mines.code(cell / width, cell % width);
+        byte now = code == Mines.CODE_HIDDEN ? UNKNOWN
+                : (code == Mines.CODE_FLAG || code == Mines.CODE_MINE) ? MINE : OPEN;
+        byte old = state[cell];
+        if(now == OPEN)
+            number[cell] = code;
+        if(now == old)
+            return;
+        state[cell] = now;
+        if(old == UNKNOWN) unknownCells--;
+        if(now == UNKNOWN) unknownCells++;
+        if(old == MINE) knownMines--;
+        if(now == MINE) knownMines++;
+        if(now == OPEN){
+            queue(cell);
+            if((marks[cell] & IN_FRONTIER) == 0){
+                marks[cell] |= IN_FRONTIER;
+                frontier.add(cell);
+            }
+        }
+        // the neighboring numbers lost a hidden neighbor
+        int x = cell / width, y = cell % width;
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                if(inBound(i,j) && state[i * width + j] == OPEN)
+                    queue(i * width + j);
+            }
+        }
+    }
+
+    // play one move and report what happened
+    public Result step(){
+        // play moves that are already known
+        Result r = playKnownMove();
+        if(r != null)
+            return r;
+        // deduce new moves
+        if(deduce()){
+            r = playKnownMove();
+            if(r != null)
+                return r;
+        }
+        if(mines.isDone())
+            return Result.WON;
+        if(!allowGuess)
+            return Result.STUCK;
+        int cell = guessCell();
+        if(cell < 0)
+            return Result.STUCK;
+        guesses++;
+        r = openCell(cell);
+        return r == Result.OPENED ? Result.GUESSED : r;
+    }
+
+    // play until the game is won, lost, or no move is possible
+    public Result solve(){
+        Result r;
+        do{
+            r = step();
+        }while(r == Result.OPENED || r == Result.FLAGGED || r == Result.GUESSED);
+        return r;
+    }
+
+    // find a cell known to be safe (for hints) - returns the flattened index, or -1
+    public int findSafeCell(){
+        do{
+            while(!safeCells.isEmpty()){
+                int cell = safeCells.get(safeCells.size() - 1);
+                if(state[cell] == UNKNOWN)
+                    return cell;
+                marks[safeCells.pop()] &= ~IN_MOVES;
+            }
+        }while(deduce());
+        return -1;
+    }
+
+    // helper method for playing a deduced move (null if there is none)
+    private Result playKnownMove(){
+        while(!safeCells.isEmpty()){
+            int cell = safeCells.pop();
+            marks[cell] &= ~IN_MOVES;
+            if(state[cell] == UNKNOWN)
+                return openCell(cell);
+        }
+        while(!mineCells.isEmpty()){
+            int cell = mineCells.pop();
+            marks[cell] &= ~IN_MOVES;
+            if(state[cell] == UNKNOWN){
+                lastCell = cell;
+                mines.toggleFlag(cell / width, cell % width);
+                refresh(cell);
+                return Result.FLAGGED;
+            }
+        }
+        return null;
+    }
+
+    // helper method for opening a cell and reading back what was revealed
+    private Result openCell(int cell){
+        lastCell = cell;
+        int x = cell / width, y = cell % width;
+        revealed.clear();
+        if(!mines.open(x, y, revealed)){
+            // not opened: either it was opened meanwhile, or it holds a mine
+            if(mines.isOpen(x, y)){
+                refresh(cell);
+                return Result.OPENED;
+            }
+            return Result.LOST;
+        }
+        for(int k=0;k<revealed.size();k++)
+            refresh(revealed.get(k));
+        return mines.isDone() ? Result.WON : Result.OPENED;
+    }
+
+    private boolean inBound(int x, int y){
+        return x>=0 && x<height && y>=0 && y<width;
+    }
+
+    // helper method for queueing a number for re-examination
+    private void queue(int cell){
+        if((marks[cell] & IN_WORK) == 0){
+            marks[cell] |= IN_WORK;
+            work.add(cell);
+        }
+        if((marks[cell] & IN_PAIR_WORK) == 0){
+            marks[cell] |= IN_PAIR_WORK;
+            pairWork.add(cell);
+        }
+    }
+
+    // helper methods for recording a deduced move
+    private boolean addSafe(int cell){
+        if((marks[cell] & IN_MOVES) != 0)
+            return false;
+        marks[cell] |= IN_MOVES;
+        safeCells.add(cell);
+        return true;
+    }
+    private boolean addMine(int cell){
+        if((marks[cell] & IN_MOVES) != 0)
+            return false;
+        marks[cell] |= IN_MOVES;
+        mineCells.add(cell);
+        return true;
+    }
+
+    // count hidden neighbors of an open cell
+    private int hiddenNeighbors(int cell){
+        int x = cell / width, y = cell % width, count = 0;
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                if(inBound(i,j) && state[i * width + j] == UNKNOWN)
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    // mines still missing around an open cell (its number minus known mines)
+    private int remainingMines(int cell){
+        int x = cell / width, y = cell % width, count = number[cell];
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                if(inBound(i,j) && state[i * width + j] == MINE)
+                    count--;
+            }
+        }
+        return count;
+    }
+
+    // helper method for deducing new moves, true if any were found
+    private boolean deduce(){
+        boolean found = false;
+        // single-cell rule
+        while(!work.isEmpty()){
+            int cell = work.pop();
+            marks[cell] &= ~IN_WORK;
+            found |= singleCellRule(cell);
+        }
+        if(found)
+            return true;
+        // pair rule (only for numbers that changed since they were last compared)
+        while(!pairWork.isEmpty() && !found){
+            int cell = pairWork.pop();
+            marks[cell] &= ~IN_PAIR_WORK;
+            found = pairRule(cell);
+        }
+        return found;
+    }
+
+    private boolean singleCellRule(int cell){
+        int hidden = hiddenNeighbors(cell);
+        if(hidden == 0)
+            return false;
+        int rem = remainingMines(cell);
+        if(rem != 0 && rem != hidden)
+            return false;
+        boolean found = false;
+        int x = cell / width, y = cell % width;
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                if(inBound(i,j) && state[i * width + j] == UNKNOWN)
+                    found |= rem == 0 ? addSafe(i * width + j) : addMine(i * width + j);
+            }
+        }
+        return found;
+    }
+
+    // compare an open number with every open number up to two cells away
+    private boolean pairRule(int a){
+        if(hiddenNeighbors(a) == 0)
+            return false;
+        int x = a / width, y = a % width;
+        boolean found = false;
+        for(int i=x-2;i<x+3;i++){
+            for(int j=y-2;j<y+3;j++){
+                int b = i * width + j;
+                if(inBound(i,j) && b != a && state[b] == OPEN && hiddenNeighbors(b) > 0)
+                    found |= comparePair(a, b) | comparePair(b, a);
+            }
+        }
+        return found;
+    }
+
+    // if the mines a needs beyond b fill exactly the cells only a sees,
+    // those cells are mines and the cells only b sees are safe
+    private boolean comparePair(int a, int b){
+        int onlyA = 0;
+        int ax = a / width, ay = a % width, bx = b / width, by = b % width;
+        for(int i=ax-1;i<ax+2;i++){
+            for(int j=ay-1;j<ay+2;j++){
+                if(inBound(i,j) && state[i * width + j] == UNKNOWN
+                        && (Math.abs(i - bx) > 1 || Math.abs(j - by) > 1))
+                    onlyA++;
+            }
+        }
+        if(remainingMines(a) - remainingMines(b) != onlyA)
+            return false;
+        boolean found = false;
+        for(int i=ax-1;i<ax+2;i++){
+            for(int j=ay-1;j<ay+2;j++){
+                if(inBound(i,j) && state[i * width + j] == UNKNOWN
+                        && (Math.abs(i - bx) > 1 || Math.abs(j - by) > 1))
+                    found |= addMine(i * width + j);
+            }
+        }
+        for(int i=bx-1;i<bx+2;i++){
+            for(int j=by-1;j<by+2;j++){
+                if(inBound(i,j) && state[i * width + j] == UNKNOWN
+                        && (Math.abs(i - ax) > 1 || Math.abs(j - ay) > 1))
+                    found |= addSafe(i * width + j);
+            }
+        }
+        return found;
+    }
+
+    // estimated mine probability of a hidden cell next to open numbers
+    // (the highest local ratio of missing mines to hidden cells)
+    private double localProbability(int cell){
+        int x = cell / width, y = cell % width;
+        double p = 0;
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                int n = i * width + j;
+                if(inBound(i,j) && state[n] == OPEN)
+                    p = Math.max(p, (double) remainingMines(n) / hiddenNeighbors(n));
+            }
+        }
+        return p;
+    }
+
+    // helper method for choosing the hidden cell to guess
+    private int guessCell(){
+        // first move - start in the middle of the board
+        if(unknownCells == state.length)
+            return (height / 2) * width + width / 2;
+        int best = -1;
+        double bestP = 2;
+        // hidden cells next to numbers (dropping numbers with no hidden neighbors)
+        int kept = 0;
+        for(int k=0;k<frontier.size();k++){
+            int a = frontier.get(k);
+            if(hiddenNeighbors(a) == 0){
+                marks[a] &= ~IN_FRONTIER;
+                continue;
+            }
+            frontier.set(kept++, a);
+            int x = a / width, y = a % width;
+            for(int i=x-1;i<x+2;i++){
+                for(int j=y-1;j<y+2;j++){
+                    int n = i * width + j;
+                    if(inBound(i,j) && state[n] == UNKNOWN){
+                        double p = localProbability(n);
+                        if(p < bestP){
+                            bestP = p;
+                            best = n;
+                        }
+                    }
+                }
+            }
+        }
+        frontier.truncate(kept);
+        // a hidden cell away from all numbers has about the average density
+        int interior = interiorCell();
+        if(interior >= 0 && unknownCells > 0){
+            double p = (double) (mines.getNumMines() - knownMines) / unknownCells;
+            if(p < bestP)
+                best = interior;
+        }
+        return best;
+    }
+
+    // find a hidden cell with no open neighbors (or -1)
+    // cells never become interior again once they are not, so the scan only moves forward
+    private int interiorCell(){
+        for(;scanPos<state.length;scanPos++){
+            if(state[scanPos] == UNKNOWN && !hasOpenNeighbor(scanPos))
+                return scanPos;
+        }
+        return -1;
+    }
+
+    private boolean hasOpenNeighbor(int cell){
+        int x = cell / width, y = cell % width;
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                if(inBound(i,j) && state[i * width + j] == OPEN)
+                    return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,202 @@
+package mines;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/*
+MinesTerminal: Play Minesweeper in a terminal (or from a script) - no JavaFX.
+Reads one command per line from standard input (or from the file given with
+-Dmines.script=file, e.g. the training run of the cds build profile):
+  new height width mines [seed]   start a new game
+  endless density [seed]          start an endless game (see EndlessMines; 0 0 is always safe)
+  open x y                        open a cell (row, column)
+  flag x y                        toggle the flag of a cell
+  print                           show the board (see Mines.toString)
+  quit
+Every move answers with the game status (playing, won or lost); in an interactive terminal
+the board is shown after every move as well. The moves follow the rules of the UI (the
+first opened cell is never a mine). Errors print "error: message" and the game goes on.
+Meant for scripted runs and smoke tests, so it starts fast: it loads nothing but the game
+logic (for even faster starts, see the class-data sharing notes in the README).
+An endless game has no bounds and can not be won; print shows the part of the field
+around the last move, after a line with the row and column of its top left cell.
+Usage: MinesTerminal [height width mines [seed]]   (default: a 10x10 board with 10 mines)
+       MinesTerminal endless density [seed]
+ */
+
+public class MinesTerminal {
+    // size of the part of an endless field that print shows
+    private static final int VIEW_ROWS = 21, VIEW_COLS = 41;
+    private final PrintStream out;
+    private final boolean interactive;
+    // the current game: a bounded board, or an endless field (the other one is null)
+    private Mines mines;
+    private EndlessMines endless;
+    // cell of the last move in an endless game (the center of the printed view)
+    private int lastX, lastY;
+    private boolean firstClick, won, lost;
+
+    public MinesTerminal(PrintStream out, boolean interactive){
+        this.out = out;
+        this.interactive = interactive;
+    }
+
+    // start a new game on the given board
+    public void newGame(Mines mines){
+        this.mines = mines;
+        endless = null;
+        firstClick = true;
+        won = lost = false;
+    }
+
+    // start a new endless game
+    public void newGame(EndlessMines endless){
+        this.endless = endless;
+        mines = null;
+        lastX = lastY = 0;
+        won = lost = false;
+    }
+
+    public String status(){
+        return won ? "won" : lost ? "lost" : "playing";
+    }
+
+    // run one command line - returns false for quit
+    public boolean command(String line){
+        String[] args = line.trim().split("\\s+");
+        try{
+            switch(args[0].toLowerCase()){
+                case "":
+                    break;
+                case "new":
+                    int height = Integer.parseInt(args[1]), width = Integer.parseInt(args[2]);
+                    int numMines = Integer.parseInt(args[3]);
+                    if(height <= 0 || width <= 0 || numMines < 0)
+                        throw new IllegalArgumentException("bad board size");
+                    newGame(args.length > 4 ? new Mines(height, width, numMines, Long.parseLong(args[4]))
+                            : new Mines(height, width, numMines));
+                    out.println(height + "x" + width + ", " + numMines + " mines");
+                    break;
+                case "endless":
+                    double density = Double.parseDouble(args[1]);
+                    newGame(args.length > 2 ? new EndlessMines(density, Long.parseLong(args[2]))
+                            : new EndlessMines(density, new Random().nextLong()));
+                    out.println("endless, density " + density);
+                    break;
+                case "open":
+                case "flag":
+                    boolean flag = args[0].equalsIgnoreCase("flag");
+                    int x = Integer.parseInt(args[1]), y = Integer.parseInt(args[2]);
+                    if(endless != null)
+                        endlessMove(flag, x, y);
+                    else
+                        move(flag, x, y);
+                    if(interactive)
+                        print();
+                    out.println(status());
+                    break;
+                case "print":
+                    print();
+                    break;
+                case "quit":
+                    return false;
+                default:
+                    throw new IllegalArgumentException("unknown command " + args[0] + " (new, endless, open, flag, print, quit)");
+            }
+        }catch(RuntimeException e){
+            // bad arguments (missing, not numbers, out of the board) or unknown command
+            out.println("error: " + (e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage()));
+        }
+        return true;
+    }
+
+    // apply a move (same rules as MinesweeperController.gridButtonManagement)
+    private void move(boolean flag, int x, int y){
+        if(x < 0 || x >= mines.getHeight() || y < 0 || y >= mines.getWidth())
+            throw new IllegalArgumentException("cell out of the board");
+        if(won || lost)
+            return;
+        if(flag){
+            if(!mines.isOpen(x, y))
+                mines.toggleFlag(x, y);
+        }
+        else if(!mines.isFlagged(x, y)){
+            if(firstClick && mines.hasMine(x, y))
+                mines.moveMine(x, y);
+            firstClick = false;
+            if(mines.hasMine(x, y)){
+                lost = true;
+                mines.setShowAll(true);
+            }
+            else{
+                mines.open(x, y);
+                won = mines.isDone();
+                if(won)
+                    mines.setShowAll(true);
+            }
+        }
+    }
+
+    // apply a move to the endless game (no first click rule - every game starts safe at 0 0)
+    private void endlessMove(boolean flag, int x, int y){
+        if(lost)
+            return;
+        lastX = x;
+        lastY = y;
+        if(flag){
+            if(!endless.isOpen(x, y))
+                endless.toggleFlag(x, y);
+        }
+        else if(!endless.isFlagged(x, y)){
+            if(endless.hasMine(x, y))
+                lost = true;
+            else
+                endless.open(x, y);
+        }
+    }
+
+    private void print(){
+        try{
+            if(endless != null){
+                int top = lastX - VIEW_ROWS / 2, left = lastY - VIEW_COLS / 2;
+                out.println(top + " " + left);
+                endless.setFocus(lastX, lastY);
+                endless.appendTo(out, top, left, VIEW_ROWS, VIEW_COLS);
+            }
+            else
+                mines.appendTo(out);
+        }catch(IOException e){
+            throw new IllegalStateException(e); // PrintStream does not throw
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String script = System.getProperty("mines.script");
+        boolean interactive = script == null && System.console() != null;
+        MinesTerminal terminal = new MinesTerminal(System.out, interactive);
+        if(args.length >= 2 && args[0].equals("endless"))
+            terminal.command(String.join(" ", args));
+        else if(args.length >= 3){
+            int height = Integer.parseInt(args[0]), width = Integer.parseInt(args[1]);
+            int numMines = Integer.parseInt(args[2]);
+            terminal.newGame(args.length > 3 ? new Mines(height, width, numMines, Long.parseLong(args[3]))
+                    : new Mines(height, width, numMines));
+        }
+        else
+            terminal.newGame(new Mines(10, 10, 10));
+        BufferedReader in = script == null ? new BufferedReader(new InputStreamReader(System.in))
+                : Files.newBufferedReader(Path.of(script));
+        if(interactive)
+            System.out.print("> ");
+        String line;
+        while((line = in.readLine()) != null && terminal.command(line)){
+            if(interactive)
+                System.out.print("> ");
+        }
+    }
+}
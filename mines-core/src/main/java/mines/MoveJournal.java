@@ -0,0 +1,136 @@
+package mines;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+MoveJournal: An append-only journal of the moves applied to a Mines board.
+The journal starts with a header describing the board (height, width, number of mines
+and seed), so the game can be rebuilt from the journal alone (see MoveReplay).
+Every move is a fixed-width 8-byte record: the operation in the top 2 bits, then the
+row and column (31 bits each). Records are collected in a buffer and written in
+batches - when the buffer is full, on flush, on close, and by a daemon timer FLUSH_NANOS
+after the first move of a batch was appended (also while the game sits idle) - not one
+write per move. Once written, the moves survive the process being killed, so a game that
+is quit without close loses at most the moves of its last second (a machine crash may
+lose what the OS has not stored yet - the journal does not force its writes to disk).
+The timer writes from its own thread, so the public methods are synchronized.
+ */
+
+public class MoveJournal implements Closeable {
+    // move operations
+    public static final int OPEN = 1, FLAG = 2, MOVE_MINE = 3;
+
+    static final int MAGIC = 0x4D4A4E4C; // "MJNL"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 8;
+    // records per batch write
+    private static final int BATCH_RECORDS = 8192;
+    // age of the oldest buffered move when the timer writes the batch out
+    private static final long FLUSH_NANOS = 1_000_000_000L;
+    // the timer of every journal (a daemon, so it never keeps the application running)
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "journal-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_RECORDS * RECORD_SIZE);
+    private long moves;
+    // the timed write of the buffered moves (null while nothing is buffered)
+    private ScheduledFuture<?> timedFlush;
+    // error of the last timed write (thrown by the next append, flush or close)
+    private IOException timedFlushError;
+
+    // create a journal for a new game on the given board (replacing the file)
+    public MoveJournal(Path file, Mines mines) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION)
+                .putInt(mines.getHeight()).putInt(mines.getWidth()).putInt(mines.getNumMines())
+                .putLong(mines.getSeed());
+        header.clear();
+        while(header.hasRemaining())
+            channel.write(header);
+    }
+
+    // helper methods for packing and unpacking a move record
+    static long record(int op, int x, int y){
+        return ((long) op << 62) | ((long) x << 31) | y;
+    }
+    static int op(long record){
+        return (int) (record >>> 62);
+    }
+    static int x(long record){
+        return (int) ((record >>> 31) & Integer.MAX_VALUE);
+    }
+    static int y(long record){
+        return (int) (record & Integer.MAX_VALUE);
+    }
+
+    // number of moves appended so far
+    public synchronized long getMoves(){return moves;}
+
+    // append a move (written out with the next batch)
+    public synchronized void append(int op, int x, int y) throws IOException {
+        if(op < OPEN || op > MOVE_MINE || x < 0 || y < 0)
+            throw new IllegalArgumentException("bad move: " + op + " " + x + "," + y);
+        if(!buffer.hasRemaining())
+            flush();
+        throwTimedFlushError();
+        buffer.putLong(record(op, x, y));
+        moves++;
+        if(timedFlush == null)
+            timedFlush = FLUSHER.schedule(this::timedFlush, FLUSH_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    // write the buffered moves to the file
+    public synchronized void flush() throws IOException {
+        throwTimedFlushError();
+        if(timedFlush != null){
+            timedFlush.cancel(false);
+            timedFlush = null;
+        }
+        buffer.flip();
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    // helper method for the timer: write the batch (unless it was written meanwhile)
+    private synchronized void timedFlush(){
+        if(timedFlush == null || !channel.isOpen())
+            return;
+        try{
+            flush();
+        }catch(IOException e){
+            timedFlushError = e;
+        }
+    }
+
+    private void throwTimedFlushError() throws IOException {
+        IOException e = timedFlushError;
+        timedFlushError = null;
+        if(e != null)
+            throw e;
+    }
+
+    public synchronized void close() throws IOException {
+        try{
+            flush();
+        }finally{
+            channel.close();
+        }
+    }
+}
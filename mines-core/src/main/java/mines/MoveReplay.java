@@ -0,0 +1,142 @@
+package mines;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+MoveReplay: Rebuilds a game from a MoveJournal.
+The board is recreated from the seed in the journal header, and the moves are applied
+in order. While replaying, the board state (cells, counters and random generator, see
+Mines.State) is kept every checkpointInterval moves, so the state after any move N is
+rebuilt from the nearest checkpoint instead of from the start (seek).
+The checkpoints together hold at most MAX_CHECKPOINT_BYTES of cells: past that, every
+other one is dropped and the interval doubles, so long games on large boards do not
+keep one board copy per interval.
+Usage (prints the final board): MoveReplay journal-file
+ */
+
+public class MoveReplay {
+    private final int height, width, numMines;
+    private final long seed;
+    private final long[] moves;
+    // budget for the cells of all checkpoints
+    private static final long MAX_CHECKPOINT_BYTES = 256L << 20;
+    private int checkpointInterval;
+    // checkpoints.get(k) is the board after k * checkpointInterval moves
+    private final List<Mines.State> checkpoints = new ArrayList<>();
+
+    public MoveReplay(Path file, int checkpointInterval) throws IOException {
+        if(checkpointInterval <= 0)
+            throw new IllegalArgumentException("checkpoint interval must be positive");
+        this.checkpointInterval = checkpointInterval;
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)){
+            ByteBuffer header = ByteBuffer.allocate(MoveJournal.HEADER_SIZE);
+            while(header.hasRemaining() && ch.read(header) >= 0);
+            header.flip();
+            if(header.remaining() < MoveJournal.HEADER_SIZE || header.getInt() != MoveJournal.MAGIC)
+                throw new IOException("not a move journal: " + file);
+            int version = header.getInt();
+            if(version != MoveJournal.VERSION)
+                throw new IOException("unsupported journal version " + version + ": " + file);
+            height = header.getInt();
+            width = header.getInt();
+            numMines = header.getInt();
+            seed = header.getLong();
+            // read the records in large blocks (a partly written last record is ignored)
+            long count = (ch.size() - MoveJournal.HEADER_SIZE) / MoveJournal.RECORD_SIZE;
+            if(count > Integer.MAX_VALUE)
+                throw new IOException("journal too long: " + file);
+            moves = new long[(int) count];
+            ByteBuffer block = ByteBuffer.allocateDirect(1 << 20);
+            int read = 0;
+            while(read < moves.length){
+                block.clear();
+                block.limit((int) Math.min(block.capacity(), (long) (moves.length - read) * MoveJournal.RECORD_SIZE));
+                while(block.hasRemaining() && ch.read(block) >= 0);
+                block.flip();
+                while(block.remaining() >= MoveJournal.RECORD_SIZE)
+                    moves[read++] = block.getLong();
+            }
+        }
+        buildCheckpoints();
+    }
+
+    public int getMoveCount(){return moves.length;}
+    // moves between checkpoints (may be larger than asked for, see MAX_CHECKPOINT_BYTES)
+    public int getCheckpointInterval(){return checkpointInterval;}
+
+    // replay the whole journal once, keeping the board state at every interval
+    private void buildCheckpoints(){
+        Mines board = new Mines(height, width, numMines, seed);
+        long cells = (long) height * width;
+        checkpoints.add(board.saveState());
+        for(int i=0;i<moves.length;i++){
+            apply(board, moves[i]);
+            if((i + 1) % checkpointInterval != 0)
+                continue;
+            if((checkpoints.size() + 1) * cells > MAX_CHECKPOINT_BYTES && checkpoints.size() > 1){
+                // keep the checkpoints at even multiples of the interval, and double it
+                int kept = 0;
+                for(int k=0;k<checkpoints.size();k+=2)
+                    checkpoints.set(kept++, checkpoints.get(k));
+                checkpoints.subList(kept, checkpoints.size()).clear();
+                checkpointInterval *= 2;
+                if((i + 1) % checkpointInterval != 0)
+                    continue;
+            }
+            checkpoints.add(board.saveState());
+        }
+    }
+
+    // apply a single move record to a board
+    static void apply(Mines board, long record){
+        int x = MoveJournal.x(record), y = MoveJournal.y(record);
+        switch(MoveJournal.op(record)){
+            case MoveJournal.OPEN:
+                board.open(x, y);
+                break;
+            case MoveJournal.FLAG:
+                board.toggleFlag(x, y);
+                break;
+            case MoveJournal.MOVE_MINE:
+                board.moveMine(x, y);
+                break;
+            default:
+                throw new IllegalStateException("bad move record: " + Long.toHexString(record));
+        }
+    }
+
+    // get the board as it was after the first n moves (a new, independent board)
+    public Mines boardAt(int n){
+        if(n < 0 || n > moves.length)
+            throw new IndexOutOfBoundsException("move " + n + " of " + moves.length);
+        int k = n / checkpointInterval;
+        Mines board = new Mines(checkpoints.get(k));
+        for(int i=k*checkpointInterval;i<n;i++)
+            apply(board, moves[i]);
+        return board;
+    }
+
+    // get the final board
+    public Mines finalBoard(){
+        return boardAt(moves.length);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1){
+            System.err.println("usage: MoveReplay journal-file");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        MoveReplay replay = new MoveReplay(Path.of(args[0]), 4096);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d moves replayed in %.3f s (%.0f moves/sec)%n",
+                replay.getMoveCount(), seconds, replay.getMoveCount() / seconds);
+        System.out.print(replay.finalBoard());
+    }
+}
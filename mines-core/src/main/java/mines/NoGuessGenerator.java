@@ -0,0 +1,131 @@
+package mines;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/*
+NoGuessGenerator: Generates Minesweeper boards that can be solved from the first click
+by logic alone (no 50/50 guesses).
+Candidate boards are ordinary Mines boards built from seeds derived from a base seed.
+A candidate is kept if its start cell has no mined neighbors (so the first click opens
+an area) and MinesSolver, with guessing disabled, wins it from that click. Candidates
+are tried in parallel on the common fork-join pool; the result is the lowest-numbered
+solvable candidate (once one is found, every lower candidate is tried to the end, even
+past the timeout), so the same base seed always gives the same board.
+If no candidate is found within the timeout, the first candidate whose start cell is
+safe is returned instead (or simply the first candidate - then the usual first-click
+rule, Mines.moveMine, keeps the first click safe). Only this fallback depends on timing
+(how many candidates were tried in time).
+The returned board is a fresh Mines(height, width, mines, seed), so it can be saved,
+journaled and replayed like any other board.
+Keeps metrics over all calls: boards generated, fallbacks, candidates tried (per second).
+Usage (prints the metrics of a batch): NoGuessGenerator height width mines boards [timeout-ms]
+ */
+
+public class NoGuessGenerator {
+    private final int height, width, numMines;
+    private final long timeoutNanos;
+    // metrics
+    private final LongAdder boards = new LongAdder(), fallbacks = new LongAdder();
+    private final LongAdder candidates = new LongAdder(), searchNanos = new LongAdder();
+
+    public NoGuessGenerator(int height, int width, int numMines, long timeoutMillis){
+        this.height = height;
+        this.width = width;
+        this.numMines = Math.min(numMines, height * width);
+        timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    public int getHeight(){return height;}
+    public int getWidth(){return width;}
+    public int getNumMines(){return numMines;}
+
+    // getters for the metrics
+    public long getBoards(){return boards.sum();}
+    public long getFallbacks(){return fallbacks.sum();}
+    public long getCandidates(){return candidates.sum();}
+    public double getCandidatesPerSecond(){
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : candidates.sum() / (nanos / 1e9);
+    }
+    public double getAverageMillis(){
+        long n = boards.sum();
+        return n == 0 ? 0 : searchNanos.sum() / 1e6 / n;
+    }
+
+    // generate a board meant to be started by opening the cell (x, y)
+    public Mines generate(int x, int y, long seed){
+        long start = System.nanoTime(), deadline = start + timeoutNanos;
+        // the start cell can only be an empty cell if there is room for its neighborhood
+        boolean needEmpty = numMines <= height * width - 9;
+        // next candidate to hand out, lowest solvable candidate, lowest candidate with a safe start
+        AtomicLong next = new AtomicLong(), found = new AtomicLong(Long.MAX_VALUE);
+        AtomicLong safe = new AtomicLong(Long.MAX_VALUE);
+        LongAdder tried = new LongAdder();
+        IntStream.range(0, ForkJoinPool.getCommonPoolParallelism()).parallel().forEach(worker -> {
+            // candidates are handed out in order, and a candidate that was handed out is
+            // always tried - so once one is found, every lower candidate has been (or is
+            // being) tried. The timeout only stops the search while nothing is found.
+            while(found.get() != Long.MAX_VALUE || System.nanoTime() - deadline < 0){
+                long i = next.getAndIncrement();
+                if(i >= found.get())
+                    break;
+                tried.increment();
+                Mines candidate = new Mines(height, width, numMines, MinesSimulator.gameSeed(seed, i));
+                if(candidate.hasMine(x, y))
+                    continue;
+                safe.accumulateAndGet(i, Math::min);
+                if(needEmpty && !emptyAround(candidate, x, y))
+                    continue;
+                candidate.open(x, y);
+                if(new MinesSolver(candidate, false).solve() == MinesSolver.Result.WON)
+                    found.accumulateAndGet(i, Math::min);
+            }
+        });
+        long chosen = found.get();
+        if(chosen == Long.MAX_VALUE){
+            fallbacks.increment();
+            chosen = safe.get() == Long.MAX_VALUE ? 0 : safe.get();
+        }
+        boards.increment();
+        candidates.add(tried.sum());
+        searchNanos.add(System.nanoTime() - start);
+        return new Mines(height, width, numMines, MinesSimulator.gameSeed(seed, chosen));
+    }
+
+    // check that no neighbor of a cell has a mine
+    private static boolean emptyAround(Mines mines, int x, int y){
+        for(int i=Math.max(0, x-1);i<Math.min(mines.getHeight(), x+2);i++){
+            for(int j=Math.max(0, y-1);j<Math.min(mines.getWidth(), y+2);j++){
+                if(mines.hasMine(i, j))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    public String toString(){
+        return String.format("%d boards, %d fallbacks, %d candidates (%.0f candidates/sec), %.2f ms per board",
+                getBoards(), getFallbacks(), getCandidates(), getCandidatesPerSecond(), getAverageMillis());
+    }
+
+    public static void main(String[] args){
+        if(args.length < 4){
+            System.err.println("usage: NoGuessGenerator height width mines boards [timeout-ms]");
+            System.exit(1);
+        }
+        int height = Integer.parseInt(args[0]);
+        int width = Integer.parseInt(args[1]);
+        int numMines = Integer.parseInt(args[2]);
+        int count = Integer.parseInt(args[3]);
+        long timeout = args.length > 4 ? Long.parseLong(args[4]) : 100;
+        NoGuessGenerator generator = new NoGuessGenerator(height, width, numMines, timeout);
+        long seed = System.nanoTime();
+        for(int k=0;k<count;k++)
+            generator.generate(height / 2, width / 2, seed + k);
+        System.out.println(generator);
+    }
+}
@@ -0,0 +1,111 @@
+package mines;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ParallelReveal: The flood fill of Mines.open, split across a ForkJoinPool.
+Used by Mines for the cascade of a single click on very large boards.
+Each task runs the usual stack-based flood fill; when its stack grows large and the
+pool has idle threads, the older half of the stack (cells reached earlier, usually a
+different region of the board) is handed to a new task. The OPEN bit of each cell is
+set with a compare-and-set, so it doubles as the shared visited set: every cell is
+opened and expanded by exactly one task, and the opened cells are the same as with the
+sequential fill. Each task counts (and optionally lists) the cells it opened, and the
+results are merged when the forked tasks are joined.
+ */
+
+final class ParallelReveal extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(byte[].class);
+    // pending cells a task keeps before handing half of them to a new task
+    private static final int SPLIT_SIZE = 512;
+
+    private final byte[] cells;
+    private final int height, width;
+    private final CellList work;
+    // maximum number of opened cells to list (past that, only counted)
+    private final int logLimit;
+    // results: number of opened cells, and the opened cells unless overflow is set
+    int opened;
+    final CellList log = new CellList();
+    boolean overflow;
+
+    // cells in work must already be open (and have no mined neighbors)
+    ParallelReveal(byte[] cells, int height, int width, CellList work, int logLimit){
+        this.cells = cells;
+        this.height = height;
+        this.width = width;
+        this.work = work;
+        this.logLimit = logLimit;
+    }
+
+    // helper method for opening a cell - true only for the task that opened it
+    private boolean tryOpen(int cell){
+        byte old;
+        do{
+            old = (byte) CELL.getVolatile(cells, cell);
+            if((old & (Mines.OPEN | Mines.MINE)) != 0)
+                return false;
+        }while(!CELL.compareAndSet(cells, cell, old, (byte) (old | Mines.OPEN)));
+        return true;
+    }
+
+    private void record(int cell){
+        opened++;
+        if(overflow)
+            return;
+        if(log.size() >= logLimit){
+            log.clear();
+            overflow = true;
+            return;
+        }
+        log.add(cell);
+    }
+
+    protected void compute(){
+        List<ParallelReveal> forked = new ArrayList<>();
+        while(!work.isEmpty()){
+            if(work.size() >= SPLIT_SIZE && getSurplusQueuedTaskCount() < 2){
+                // give the bottom half of the stack to another task
+                int half = work.size() / 2;
+                CellList given = new CellList(half);
+                for(int k=0;k<half;k++)
+                    given.add(work.get(k));
+                for(int k=half;k<work.size();k++)
+                    work.set(k - half, work.get(k));
+                work.truncate(work.size() - half);
+                ParallelReveal task = new ParallelReveal(cells, height, width, given, logLimit);
+                task.fork();
+                forked.add(task);
+            }
+            int cell = work.pop();
+            int x = cell / width, y = cell % width;
+            for(int r=x-1;r<x+2;r++){
+                for(int c=y-1;c<y+2;c++){
+                    int n = r * width + c;
+                    if(r>=0 && r<height && c>=0 && c<width && tryOpen(n)){
+                        record(n);
+                        // neighbor counts do not change during the fill
+                        if((cells[n] & Mines.COUNT_MASK) == 0)
+                            work.add(n);
+                    }
+                }
+            }
+        }
+        for(ParallelReveal task : forked){
+            task.join();
+            opened += task.opened;
+            overflow |= task.overflow;
+            if(overflow || log.size() + task.log.size() > logLimit){
+                log.clear();
+                overflow = true;
+            }
+            else
+                log.addAll(task.log);
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package mines;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/*
+StatsStore: Persistent game statistics, aggregated per board configuration
+(height, width, mines).
+Every finished game is appended to a log (stats.log) as a fixed-width 24-byte record:
+height, width, mines, clicks (top bit set for a win) and the duration in milliseconds.
+In memory the store keeps aggregates per configuration in a hash map (games, wins,
+best and total winning time, clicks), so queries never read the files.
+When the log passes COMPACT_RECORDS games it is compacted in the background: the
+aggregates are written to a snapshot (stats.snap) and the log starts over. Every log
+has a generation number and the snapshot names the last generation it includes, so a
+compaction cut short (e.g. by a crash) neither loses nor double-counts games - the
+store finishes it when it is opened again.
+A store without a directory (new StatsStore()) keeps the aggregates in memory only.
+Only one store at a time uses a directory: it holds a lock on stats.lock while it is open
+(another process, e.g. a second copy of the game, would append at stale offsets or move
+the log away during a compaction). A store that finds the directory locked falls back to
+memory only (see isPersistent) and does not read the files either.
+Usage (prints the statistics): StatsStore directory
+ */
+
+public class StatsStore implements Closeable {
+    static final int LOG_MAGIC = 0x4D53544C; // "MSTL"
+    static final int SNAPSHOT_MAGIC = 0x4D535453; // "MSTS"
+    static final int VERSION = 1;
+    // magic, version, generation
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 24;
+    // height, width, mines, games, wins, best, winning time, clicks
+    static final int SUMMARY_SIZE = 52;
+    // clicks field bit for a win
+    private static final int WON = 1 << 31;
+    // log records before the log is folded into the snapshot (package-private for the tests)
+    static final long COMPACT_RECORDS = 1 << 16;
+    static final String LOG = "stats.log", OLD_LOG = "stats.log.old", SNAPSHOT = "stats.snap", LOCK = "stats.lock";
+
+    // statistics of one board configuration (or of all of them, see getTotal)
+    public static final class Stats {
+        private long games, wins, bestMillis = -1, winMillis, clicks;
+
+        private void add(boolean won, long millis, long clicks){
+            games++;
+            this.clicks += clicks;
+            if(won){
+                wins++;
+                winMillis += millis;
+                if(bestMillis < 0 || millis < bestMillis)
+                    bestMillis = millis;
+            }
+        }
+
+        private void add(Stats other){
+            games += other.games;
+            wins += other.wins;
+            winMillis += other.winMillis;
+            clicks += other.clicks;
+            if(other.bestMillis >= 0 && (bestMillis < 0 || other.bestMillis < bestMillis))
+                bestMillis = other.bestMillis;
+        }
+
+        private Stats copy(){
+            Stats s = new Stats();
+            s.add(this);
+            return s;
+        }
+
+        public long getGames(){return games;}
+        public long getWins(){return wins;}
+        public double getWinRate(){return games == 0 ? 0 : (double) wins / games;}
+        // fastest win (-1 if there was none)
+        public long getBestMillis(){return bestMillis;}
+        public double getAverageWinMillis(){return wins == 0 ? 0 : (double) winMillis / wins;}
+        public double getAverageClicks(){return games == 0 ? 0 : (double) clicks / games;}
+
+        public String toString(){
+            return String.format("%d games, %d wins (%.1f%%), best %s, average win %.1f s, %.1f clicks per game",
+                    games, wins, getWinRate() * 100, bestMillis < 0 ? "-" : String.format("%.1f s", bestMillis / 1e3),
+                    getAverageWinMillis() / 1e3, getAverageClicks());
+        }
+    }
+
+    // a board configuration (the key of the aggregates)
+    private static final class Config {
+        private final int height, width, numMines;
+
+        private Config(int height, int width, int numMines){
+            this.height = height;
+            this.width = width;
+            this.numMines = numMines;
+        }
+
+        public boolean equals(Object o){
+            if(!(o instanceof Config))
+                return false;
+            Config c = (Config) o;
+            return height == c.height && width == c.width && numMines == c.numMines;
+        }
+
+        public int hashCode(){
+            return (height * 31 + width) * 31 + numMines;
+        }
+
+        // the usual way of naming a board: width x height / mines
+        public String toString(){
+            return width + "x" + height + "/" + numMines;
+        }
+    }
+
+    private final Path dir;
+    private final Map<Config, Stats> stats = new HashMap<>();
+    private final Stats total = new Stats();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "stats-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+    private FileChannel log;
+    // holds the lock of the directory (null for a store in memory)
+    private FileChannel lock;
+    private long generation, logRecords;
+    private boolean compacting;
+
+    // a store that keeps the statistics in memory only
+    public StatsStore(){
+        dir = null;
+    }
+
+    // open (or create) the store in a directory
+    // (in memory only if another store has the directory, see isPersistent)
+    public StatsStore(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        lock = lock(dir.resolve(LOCK));
+        this.dir = lock == null ? null : dir;
+        if(lock == null)
+            return;
+        try{
+            open();
+        }catch(IOException | RuntimeException e){
+            lock.close();
+            throw e;
+        }
+    }
+
+    // helper method for locking the directory - returns the locked file, null if it is in use
+    private static FileChannel lock(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock held;
+        try{
+            held = ch.tryLock();
+        }catch(OverlappingFileLockException e){
+            held = null; // locked by another store of this JVM
+        }
+        if(held == null)
+            ch.close();
+        return held == null ? null : ch;
+    }
+
+    // helper method for reading the files of the directory and opening the log
+    private void open() throws IOException {
+        long covered = readSnapshot(dir.resolve(SNAPSHOT));
+        long oldGeneration = readLog(dir.resolve(OLD_LOG), covered);
+        long logGeneration = readLog(dir.resolve(LOG), covered);
+        if(oldGeneration > covered){
+            // a compaction was cut short - finish it (the snapshot takes both logs)
+            covered = Math.max(oldGeneration, logGeneration);
+            writeSnapshot(copyOfStats(), covered);
+        }
+        Files.deleteIfExists(dir.resolve(OLD_LOG));
+        if(logGeneration > covered){
+            // keep appending to the log (dropping a partly written last record)
+            generation = logGeneration;
+            log = FileChannel.open(dir.resolve(LOG), StandardOpenOption.WRITE);
+            logRecords = (log.size() - HEADER_SIZE) / RECORD_SIZE;
+            log.truncate(HEADER_SIZE + logRecords * RECORD_SIZE);
+            log.position(log.size());
+        }
+        else
+            startLog(covered + 1);
+    }
+
+    // false if the games are kept in memory only
+    public boolean isPersistent(){return dir != null;}
+
+    // record a finished game
+    public synchronized void record(int height, int width, int numMines, boolean won, long millis, int clicks)
+            throws IOException {
+        if(height <= 0 || width <= 0 || numMines < 0 || millis < 0 || clicks < 0)
+            throw new IllegalArgumentException("bad game: " + height + "x" + width + "/" + numMines +
+                    " " + millis + " ms " + clicks + " clicks");
+        if(log != null){
+            record.clear();
+            record.putInt(height).putInt(width).putInt(numMines).putInt(won ? clicks | WON : clicks).putLong(millis);
+            record.flip();
+            while(record.hasRemaining())
+                log.write(record);
+            if(++logRecords >= COMPACT_RECORDS && !compacting){
+                compacting = true;
+                compactor.execute(this::compact);
+            }
+        }
+        statsOf(height, width, numMines).add(won, millis, clicks);
+        total.add(won, millis, clicks);
+    }
+
+    // statistics of a board configuration (a copy - no games if none were recorded)
+    public synchronized Stats get(int height, int width, int numMines){
+        Stats s = stats.get(new Config(height, width, numMines));
+        return s == null ? new Stats() : s.copy();
+    }
+
+    // statistics of all games
+    public synchronized Stats getTotal(){
+        return total.copy();
+    }
+
+    // number of board configurations played
+    public synchronized int getConfigurationCount(){
+        return stats.size();
+    }
+
+    private Stats statsOf(int height, int width, int numMines){
+        return stats.computeIfAbsent(new Config(height, width, numMines), c -> new Stats());
+    }
+
+    private Map<Config, Stats> copyOfStats(){
+        Map<Config, Stats> copy = new HashMap<>();
+        for(Map.Entry<Config, Stats> e : stats.entrySet())
+            copy.put(e.getKey(), e.getValue().copy());
+        return copy;
+    }
+
+    // helper method for reading a snapshot - returns the last log generation it includes
+    private long readSnapshot(Path file) throws IOException {
+        if(!Files.exists(file))
+            return 0;
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)){
+            ByteBuffer b = ByteBuffer.allocate((int) ch.size());
+            while(b.hasRemaining() && ch.read(b) >= 0);
+            b.flip();
+            long covered = readHeader(b, SNAPSHOT_MAGIC, file);
+            int count = b.getInt();
+            if(b.remaining() < (long) count * SUMMARY_SIZE)
+                throw new IOException("truncated statistics snapshot: " + file);
+            for(int k=0;k<count;k++){
+                Stats s = statsOf(b.getInt(), b.getInt(), b.getInt());
+                Stats read = new Stats();
+                read.games = b.getLong();
+                read.wins = b.getLong();
+                read.bestMillis = b.getLong();
+                read.winMillis = b.getLong();
+                read.clicks = b.getLong();
+                s.add(read);
+                total.add(read);
+            }
+            return covered;
+        }
+    }
+
+    // helper method for reading a log - its games count only if the snapshot does not
+    // include them already (returns the log's generation, -1 if there is no log)
+    private long readLog(Path file, long covered) throws IOException {
+        if(!Files.exists(file))
+            return -1;
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)){
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while(header.hasRemaining() && ch.read(header) >= 0);
+            header.flip();
+            long logGeneration = readHeader(header, LOG_MAGIC, file);
+            if(logGeneration <= covered)
+                return logGeneration;
+            // read the records in large blocks (a partly written last record is ignored)
+            long count = (ch.size() - HEADER_SIZE) / RECORD_SIZE;
+            ByteBuffer block = ByteBuffer.allocateDirect(RECORD_SIZE << 15);
+            int lastHeight = 0, lastWidth = 0, lastMines = -1;
+            Stats last = null;
+            for(long read=0;read<count;){
+                block.clear();
+                block.limit((int) Math.min(block.capacity(), (count - read) * RECORD_SIZE));
+                while(block.hasRemaining() && ch.read(block) >= 0);
+                block.flip();
+                if(block.remaining() < RECORD_SIZE)
+                    break;
+                for(;block.remaining() >= RECORD_SIZE;read++){
+                    int height = block.getInt(), width = block.getInt(), numMines = block.getInt();
+                    int clicks = block.getInt();
+                    long millis = block.getLong();
+                    // games come in runs of the same configuration - skip the lookup then
+                    if(last == null || height != lastHeight || width != lastWidth || numMines != lastMines){
+                        last = statsOf(height, width, numMines);
+                        lastHeight = height;
+                        lastWidth = width;
+                        lastMines = numMines;
+                    }
+                    boolean won = (clicks & WON) != 0;
+                    last.add(won, millis, clicks & ~WON);
+                    total.add(won, millis, clicks & ~WON);
+                }
+            }
+            return logGeneration;
+        }
+    }
+
+    private static long readHeader(ByteBuffer b, int magic, Path file) throws IOException {
+        if(b.remaining() < HEADER_SIZE || b.getInt() != magic)
+            throw new IOException("not a statistics file: " + file);
+        int version = b.getInt();
+        if(version != VERSION)
+            throw new IOException("unsupported statistics version " + version + ": " + file);
+        return b.getLong();
+    }
+
+    // start a new, empty log
+    private void startLog(long generation) throws IOException {
+        FileChannel ch = FileChannel.open(dir.resolve(LOG), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(LOG_MAGIC).putInt(VERSION).putLong(generation);
+        header.flip();
+        while(header.hasRemaining())
+            ch.write(header);
+        this.generation = generation;
+        logRecords = 0;
+        log = ch;
+    }
+
+    // write a snapshot of the aggregates (replacing the old one only once it is complete)
+    private void writeSnapshot(Map<Config, Stats> snapshot, long covered) throws IOException {
+        Path tmp = dir.resolve(SNAPSHOT + ".tmp");
+        ByteBuffer b = ByteBuffer.allocate(HEADER_SIZE + 4 + snapshot.size() * SUMMARY_SIZE);
+        b.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(covered).putInt(snapshot.size());
+        for(Map.Entry<Config, Stats> e : snapshot.entrySet()){
+            Config c = e.getKey();
+            Stats s = e.getValue();
+            b.putInt(c.height).putInt(c.width).putInt(c.numMines)
+                    .putLong(s.games).putLong(s.wins).putLong(s.bestMillis).putLong(s.winMillis).putLong(s.clicks);
+        }
+        b.flip();
+        try(FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)){
+            while(b.hasRemaining())
+                ch.write(b);
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // fold the log into the snapshot (on the compactor thread)
+    // the log is swapped for a new one under the lock; the snapshot is written outside it
+    private void compact(){
+        try{
+            Map<Config, Stats> snapshot;
+            long covered;
+            synchronized(this){
+                if(log == null)
+                    return; // closed
+                snapshot = copyOfStats();
+                covered = generation;
+                log.close();
+                log = null; // if the new log can't be started, the store goes on in memory
+                Files.move(dir.resolve(LOG), dir.resolve(OLD_LOG), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                startLog(covered + 1);
+            }
+            writeSnapshot(snapshot, covered);
+            Files.deleteIfExists(dir.resolve(OLD_LOG));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            synchronized(this){
+                compacting = false;
+            }
+        }
+    }
+
+    // all configurations, most played first
+    public synchronized String toString(){
+        List<Map.Entry<Config, Stats>> entries = new ArrayList<>(stats.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().games, a.getValue().games));
+        StringBuilder b = new StringBuilder();
+        b.append("all: ").append(total).append('\n');
+        for(Map.Entry<Config, Stats> e : entries)
+            b.append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+        return b.toString();
+    }
+
+    public void close() throws IOException {
+        // let a running compaction finish (it writes the snapshot outside the store's lock)
+        compactor.shutdown();
+        try{
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        synchronized(this){
+            try{
+                if(log != null)
+                    log.close();
+            }finally{
+                log = null;
+                if(lock != null)
+                    lock.close(); // releases the directory
+                lock = null;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1){
+            System.err.println("usage: StatsStore directory");
+            System.exit(1);
+        }
+        try(StatsStore store = new StatsStore(Path.of(args[0]))){
+            if(!store.isPersistent()){
+                System.err.println("statistics in use by another process: " + args[0]);
+                System.exit(1);
+            }
+            System.out.print(store);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package mines;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardPoolTest {
+
+    // helper method for waiting until the pool holds the given number of boards
+    private static void awaitReady(BoardPool pool, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while(pool.readyCount() < count && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        assertEquals(count, pool.readyCount());
+    }
+
+    @Test
+    void takesBoardsOfTheCurrentSettings() throws InterruptedException {
+        BoardPool pool = new BoardPool(3);
+        assertThrows(IllegalStateException.class, pool::take);
+        pool.configure(9, 9, 10, false);
+        awaitReady(pool, 3);
+        Mines mines = pool.take();
+        assertEquals(9, mines.getHeight());
+        assertEquals(10, mines.getNumMines());
+        awaitReady(pool, 3);
+        assertNull(pool.getGenerator());
+    }
+
+    @Test
+    void oldBoardsDoNotTakeNewSlots() throws InterruptedException {
+        BoardPool pool = new BoardPool(3);
+        for(int round=0;round<10;round++){
+            // large boards take long enough to build that the settings change meanwhile
+            pool.configure(1500, 1500 + round, 100_000, false);
+            Thread.sleep(round);
+            pool.configure(16, 30, 99 - round, false);
+            awaitReady(pool, 3);
+            assertEquals(3, pool.queuedCount());
+            Mines mines = pool.take();
+            assertEquals(30, mines.getWidth());
+            assertEquals(99 - round, mines.getNumMines());
+        }
+    }
+
+    @Test
+    void noGuessBoardsComeFromTheGenerator() throws InterruptedException {
+        BoardPool pool = new BoardPool(2);
+        pool.configure(9, 9, 10, true);
+        awaitReady(pool, 2);
+        assertNotNull(pool.getGenerator());
+        Mines mines = pool.take();
+        assertFalse(mines.hasMine(4, 4));
+    }
+}
@@ -0,0 +1,98 @@
+package mines;
+
+/*
+BruteForce: Test helper that enumerates every mine layout consistent with what the player
+sees on a (small) Mines board: the open numbers and the total number of mines.
+Flagged cells count as hidden. Gives the exact mine probability of every cell (0 for open
+cells), to check the solver and MinesProbability against.
+ */
+
+class BruteForce {
+    private final int height, width;
+    private final byte[] codes;
+    private final int[] hidden;
+    // mines still needed around each open cell while enumerating
+    private final int[] need;
+    private final long[] mineLayouts;
+    private long layouts;
+
+    BruteForce(Mines mines){
+        height = mines.getHeight();
+        width = mines.getWidth();
+        int cells = height * width;
+        codes = new byte[cells];
+        need = new int[cells];
+        mineLayouts = new long[cells];
+        int count = 0;
+        for(int cell=0;cell<cells;cell++){
+            codes[cell] = mines.code(cell / width, cell % width);
+            boolean open = codes[cell] <= 8;
+            need[cell] = open ? codes[cell] : 0;
+            if(!open)
+                count++;
+        }
+        hidden = new int[count];
+        count = 0;
+        for(int cell=0;cell<cells;cell++){
+            if(codes[cell] > 8)
+                hidden[count++] = cell;
+        }
+        int[] chosen = new int[mines.getNumMines()];
+        if(chosen.length <= hidden.length)
+            enumerate(0, 0, chosen);
+    }
+
+    // number of consistent layouts
+    long layouts(){return layouts;}
+
+    // exact mine probability of a cell
+    double probability(int cell){
+        return layouts == 0 ? 0 : (double) mineLayouts[cell] / layouts;
+    }
+
+    boolean isSafe(int cell){
+        return codes[cell] > 8 && layouts > 0 && mineLayouts[cell] == 0;
+    }
+
+    boolean isMine(int cell){
+        return layouts > 0 && mineLayouts[cell] == layouts;
+    }
+
+    // choose the mines from hidden[from..] for the slots chosen[placed..]
+    private void enumerate(int from, int placed, int[] chosen){
+        if(placed == chosen.length){
+            for(int cell=0;cell<need.length;cell++){
+                if(need[cell] > 0)
+                    return;
+            }
+            layouts++;
+            for(int cell : chosen)
+                mineLayouts[cell]++;
+            return;
+        }
+        for(int k=from;k<=hidden.length-(chosen.length-placed);k++){
+            int cell = hidden[k];
+            if(addToNeighbors(cell, -1)){
+                chosen[placed] = cell;
+                enumerate(k + 1, placed + 1, chosen);
+            }
+            addToNeighbors(cell, 1);
+        }
+    }
+
+    // change the needed mines of the open neighbors of a cell, false if one went below zero
+    private boolean addToNeighbors(int cell, int delta){
+        int x = cell / width, y = cell % width;
+        boolean ok = true;
+        for(int i=x-1;i<x+2;i++){
+            for(int j=y-1;j<y+2;j++){
+                if(i >= 0 && i < height && j >= 0 && j < width && codes[i * width + j] <= 8){
+                    need[i * width + j] += delta;
+                    if(need[i * width + j] < 0)
+                        ok = false;
+                }
+            }
+        }
+        return ok;
+    }
+}
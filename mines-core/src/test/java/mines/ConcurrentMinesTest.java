@@ -0,0 +1,116 @@
+package mines;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentMinesTest {
+    private static final int THREADS = 8;
+
+    // helper method for running the same task on THREADS threads at once
+    private static <T> List<T> runTogether(IntFunction<T> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try{
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for(int t=0;t<THREADS;t++){
+                int id = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.apply(id);
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for(Future<T> f : futures)
+                results.add(f.get());
+            return results;
+        }finally{
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentOpensOpenEachCellOnce() throws Exception {
+        for(long seed=0;seed<20;seed++){
+            Mines mines = new Mines(200, 200, 2000, seed);
+            ConcurrentMines board = new ConcurrentMines(mines);
+            long boardSeed = seed;
+            // every thread opens safe cells in its own random order, reporting what it revealed
+            List<CellList> revealed = runTogether(id -> {
+                CellList list = new CellList();
+                Random rnd = new Random(boardSeed * THREADS + id);
+                for(int k=0;k<3000;k++){
+                    int x = rnd.nextInt(200), y = rnd.nextInt(200);
+                    if(!board.hasMine(x, y))
+                        board.open(x, y, list);
+                }
+                return list;
+            });
+            boolean[] seen = new boolean[200 * 200];
+            long total = 0;
+            for(CellList list : revealed){
+                for(int k=0;k<list.size();k++){
+                    int cell = list.get(k);
+                    assertFalse(seen[cell], "cell " + cell + " opened twice");
+                    seen[cell] = true;
+                    total++;
+                }
+            }
+            assertEquals(total, board.getOpenedCells());
+            // the same cells as opening the same clicks one by one
+            for(int cell=0;cell<seen.length;cell++){
+                assertEquals(seen[cell], board.isOpen(cell / 200, cell % 200));
+                if(seen[cell])
+                    mines.open(cell / 200, cell % 200);
+            }
+            for(int cell=0;cell<seen.length;cell++)
+                assertEquals(mines.code(cell / 200, cell % 200), board.code(cell / 200, cell % 200));
+            assertEquals(mines.getOpenedCells(), board.getOpenedCells());
+            assertEquals(mines.isDone(), board.isDone());
+        }
+    }
+
+    @Test
+    void everySafeCellOpenedWinsOnce() throws Exception {
+        Mines mines = new Mines(100, 100, 1500, 4);
+        ConcurrentMines board = new ConcurrentMines(mines);
+        // the threads split the safe cells between them and open all of them
+        runTogether(id -> {
+            for(int cell=id;cell<100*100;cell+=THREADS){
+                if(!board.hasMine(cell / 100, cell % 100))
+                    board.open(cell / 100, cell % 100);
+            }
+            return null;
+        });
+        assertEquals(100 * 100 - 1500, board.getOpenedCells());
+        assertTrue(board.isDone());
+    }
+
+    @Test
+    void flagTogglesAreNotLost() throws Exception {
+        ConcurrentMines board = new ConcurrentMines(new Mines(10, 10, 10, 1));
+        int toggles = 100_001;
+        List<Integer> set = runTogether(id -> {
+            int count = 0;
+            for(int k=0;k<toggles;k++){
+                if(board.toggleFlag(5, 5))
+                    count++;
+            }
+            return count;
+        });
+        // an odd number of toggles in total leaves the flag set
+        assertTrue(board.isFlagged(5, 5) == (THREADS * (long) toggles % 2 == 1));
+        long setCount = set.stream().mapToLong(Integer::longValue).sum();
+        assertEquals((THREADS * (long) toggles + 1) / 2, setCount);
+    }
+}
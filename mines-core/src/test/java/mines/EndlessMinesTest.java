@@ -0,0 +1,77 @@
+package mines;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndlessMinesTest {
+
+    // helper method for the mine layout of a square around (0,0)
+    private static String mineLayout(EndlessMines field, int radius){
+        StringBuilder b = new StringBuilder();
+        for(int i=-radius;i<radius;i++){
+            for(int j=-radius;j<radius;j++)
+                b.append(field.hasMine(i, j) ? '*' : '.');
+            b.append('\n');
+        }
+        return b.toString();
+    }
+
+    @Test
+    void startIsSafe(){
+        for(long seed=0;seed<20;seed++){
+            EndlessMines field = new EndlessMines(EndlessMines.MAX_DENSITY, seed);
+            for(int i=-1;i<2;i++){
+                for(int j=-1;j<2;j++)
+                    assertFalse(field.hasMine(i, j));
+            }
+            assertTrue(field.open(0, 0));
+            assertEquals(Mines.CODE_HIDDEN, field.code(100, 100));
+        }
+    }
+
+    @Test
+    void sameSeedSameField(){
+        assertEquals(mineLayout(new EndlessMines(0.2, 42), 100), mineLayout(new EndlessMines(0.2, 42), 100));
+        assertNotEquals(mineLayout(new EndlessMines(0.2, 42), 100), mineLayout(new EndlessMines(0.2, 43), 100));
+    }
+
+    @Test
+    void evictedChunksComeBackUnchanged(){
+        EndlessMines field = new EndlessMines(0.15, 42);
+        field.open(0, 0);
+        // flag a few hidden cells around the start, open a cell in another chunk
+        int flags = 0;
+        for(int i=-70;i<70 && flags<5;i+=7){
+            if(!field.isOpen(i, 3)){
+                field.toggleFlag(i, 3);
+                flags++;
+            }
+        }
+        assertEquals(5, flags);
+        if(!field.hasMine(-100, -100))
+            field.open(-100, -100);
+        String view = field.toString(-128, -128, 256, 256);
+        String mines = mineLayout(field, 128);
+        long opened = field.getOpenedCells();
+
+        // read cells in far chunks until the start area is evicted
+        int far = 1000 * EndlessMines.CHUNK_SIZE;
+        for(int k=0;k<=EndlessMines.MAX_LOADED_CHUNKS;k++)
+            field.code(far + k * EndlessMines.CHUNK_SIZE, 0);
+        field.setFocus(far, 0);
+        assertTrue(field.getLoadedChunks() <= EndlessMines.MAX_LOADED_CHUNKS);
+        assertTrue(field.getStoredChunks() > 0); // the touched chunks around the start
+
+        assertEquals(view, field.toString(-128, -128, 256, 256));
+        assertEquals(mines, mineLayout(field, 128));
+        assertEquals(opened, field.getOpenedCells());
+        // the untouched far chunks are regenerated the same way
+        assertEquals(mineLayout(new EndlessMines(0.15, 42), 128), mines);
+    }
+
+    @Test
+    void rejectsPercolatingDensity(){
+        assertThrows(IllegalArgumentException.class, () -> new EndlessMines(0.05, 1));
+    }
+}
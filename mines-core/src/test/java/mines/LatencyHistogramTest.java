@@ -0,0 +1,73 @@
+package mines;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketBoundaries(){
+        // small values have a bucket each
+        for(int v=0;v<8;v++)
+            assertEquals(v, LatencyHistogram.bucket(v));
+        assertEquals(0, LatencyHistogram.bucket(-5));
+        // then 8 buckets per power of two
+        assertEquals(24, LatencyHistogram.bucket(8));
+        assertEquals(31, LatencyHistogram.bucket(15));
+        assertEquals(32, LatencyHistogram.bucket(16));
+        assertEquals(32, LatencyHistogram.bucket(17));
+        assertEquals(33, LatencyHistogram.bucket(18));
+        assertEquals(LatencyHistogram.BUCKETS - 9, LatencyHistogram.bucket(Long.MAX_VALUE));
+        // buckets never go down, and are at most 1/8 of the value wide
+        int last = 0;
+        for(long v=8;v<1_000_000;v+=1 + v / 64){
+            int b = LatencyHistogram.bucket(v);
+            assertTrue(b >= last);
+            last = b;
+            assertNotEquals(b, LatencyHistogram.bucket(v + v / 4 + 1), "" + v);
+        }
+    }
+
+    @Test
+    void percentilesOfKnownValues(){
+        LatencyHistogram h = new LatencyHistogram();
+        for(int v=1;v<=1000;v++)
+            h.record(v);
+        assertEquals(1000, h.getCount());
+        assertEquals(1000, h.getMax());
+        // lower bounds of the buckets of 500 (480..511) and 990 (960..1023)
+        assertEquals(480, h.percentile(0.5));
+        assertEquals(960, h.percentile(0.99));
+        assertEquals(1, h.percentile(0));
+        assertEquals(960, h.percentile(1));
+        // a single value is its own percentile (capped by the max)
+        LatencyHistogram one = new LatencyHistogram();
+        one.record(5);
+        assertEquals(5, one.percentile(0.5));
+        assertEquals(5, one.percentile(0.99));
+    }
+
+    @Test
+    void emptyHistogram(){
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.percentile(0.5));
+        assertEquals(0, h.percentile(0.99));
+        assertEquals("p50 0.0, p90 0.0, p99 0.0, p99.9 0.0, max 0.0 (us)", h.toString());
+    }
+
+    @Test
+    void mergeAddsTheCounts(){
+        LatencyHistogram a = new LatencyHistogram(), b = new LatencyHistogram();
+        for(int k=0;k<99;k++)
+            a.record(100);
+        b.record(1_000_000);
+        a.merge(b);
+        assertEquals(100, a.getCount());
+        assertEquals(1_000_000, a.getMax());
+        assertEquals(96, a.percentile(0.99));
+        assertTrue(a.percentile(1) > 900_000);
+    }
+}
@@ -0,0 +1,66 @@
+package mines;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinesMetricsTest {
+
+    // run in a new JVM (the switches are read once, when the classes load)
+    public static class Switches {
+        public static void main(String[] args){
+            System.out.print(MinesMetrics.ENABLED + " " + MinesEvents.ENABLED);
+        }
+    }
+
+    // helper method for the switches as a JVM with the given options sees them
+    private static String switches(String... options) throws IOException, InterruptedException {
+        String[] command = new String[options.length + 4];
+        command[0] = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        System.arraycopy(options, 0, command, 1, options.length);
+        command[options.length + 1] = "-cp";
+        command[options.length + 2] = System.getProperty("java.class.path");
+        command[options.length + 3] = Switches.class.getName();
+        Process p = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String out = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, p.waitFor(), out);
+        return out;
+    }
+
+    @Test
+    void switchesAreOffUnlessAskedFor() throws IOException, InterruptedException {
+        assertFalse(MinesMetrics.ENABLED);
+        assertFalse(MinesEvents.ENABLED);
+        assertEquals("false false", switches());
+        assertEquals("true false", switches("-Dmines.metrics=true"));
+        assertEquals("false true", switches("-Dmines.events=true"));
+        assertEquals("false false", switches("-Dmines.metrics=yes", "-Dmines.events=false"));
+    }
+
+    @Test
+    void metricsRecordIntoBuckets(){
+        MinesMetrics.Metric metric = MinesMetrics.OPEN_CELLS;
+        long before = metric.snapshot().getCount();
+        metric.record(1000);
+        metric.record(3);
+        LatencyHistogram h = metric.snapshot();
+        assertEquals(before + 2, h.getCount());
+        assertTrue(h.getMax() >= 1000);
+    }
+
+    @Test
+    void allocatedBytesGrowWithAllocation(){
+        long before = MinesMetrics.allocatedBytes();
+        if(before < 0)
+            return; // the JVM does not count allocations
+        byte[][] garbage = new byte[64][];
+        for(int k=0;k<garbage.length;k++)
+            garbage[k] = new byte[1024];
+        assertTrue(MinesMetrics.allocatedBytes() - before >= 64 * 1024);
+        assertEquals(64, garbage.length);
+    }
+}
@@ -0,0 +1,129 @@
+package mines;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinesProbabilityTest {
+
+    // helper method for a random safe (hidden, not mined) cell, or -1 when there is none left
+    private static int safeCell(Mines mines, Random rnd){
+        int cells = mines.getHeight() * mines.getWidth(), width = mines.getWidth();
+        int start = rnd.nextInt(cells);
+        for(int k=0;k<cells;k++){
+            int cell = (start + k) % cells;
+            int x = cell / width, y = cell % width;
+            if(!mines.isOpen(x, y) && !mines.hasMine(x, y))
+                return cell;
+        }
+        return -1;
+    }
+
+    // helper method for checking every hidden cell against the brute force probabilities
+    private static void assertExact(Mines mines, MinesProbability probabilities, String game){
+        BruteForce known = new BruteForce(mines);
+        int width = mines.getWidth();
+        assertTrue(probabilities.isExact(), game);
+        for(int cell=0;cell<mines.getHeight()*width;cell++){
+            int x = cell / width, y = cell % width;
+            if(mines.isOpen(x, y))
+                assertEquals(-1, probabilities.get(x, y), game);
+            else
+                assertEquals(known.probability(cell), probabilities.get(x, y), 1e-5, game + " cell " + cell);
+        }
+    }
+
+    @Test
+    void matchesBruteForceAfterEveryMove(){
+        CellList changed = new CellList();
+        for(long seed=0;seed<40;seed++){
+            Mines mines = new Mines(5, 5, 4 + (int) (seed % 4), seed);
+            Random rnd = new Random(seed);
+            MinesProbability probabilities = new MinesProbability(mines);
+            probabilities.update();
+            assertExact(mines, probabilities, "seed " + seed);
+            int cell;
+            while(!mines.isDone() && (cell = safeCell(mines, rnd)) >= 0){
+                mines.open(cell / 5, cell % 5);
+                // flags are no information
+                int other = safeCell(mines, rnd);
+                if(other >= 0)
+                    mines.toggleFlag(other / 5, other % 5);
+                changed.clear();
+                if(mines.drainChanges(changed))
+                    probabilities.update();
+                else
+                    assertFalse(probabilities.update(changed, null));
+                assertExact(mines, probabilities, "seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullUpdate(){
+        CellList changed = new CellList(), affected = new CellList();
+        for(long seed=0;seed<10;seed++){
+            Mines mines = new Mines(30, 40, 150, seed);
+            Random rnd = new Random(seed);
+            MinesProbability probabilities = new MinesProbability(mines);
+            probabilities.update();
+            double[] before = new double[30 * 40];
+            for(int move=0;move<40 && !mines.isDone();move++){
+                for(int cell=0;cell<before.length;cell++)
+                    before[cell] = probabilities.get(cell / 40, cell % 40);
+                int cell = safeCell(mines, rnd);
+                mines.open(cell / 40, cell % 40);
+                changed.clear();
+                affected.clear();
+                if(mines.drainChanges(changed)){
+                    probabilities.update();
+                    continue;
+                }
+                double interior = probabilities.getInteriorProbability();
+                assertFalse(probabilities.update(changed, affected));
+                // a fresh calculation over the whole board gives the same result
+                MinesProbability full = new MinesProbability(mines);
+                full.update();
+                assertEquals(full.getComponentCount(), probabilities.getComponentCount());
+                assertTrue(probabilities.getRecomputedCount() <= full.getRecomputedCount());
+                boolean[] reported = new boolean[before.length];
+                for(int k=0;k<changed.size();k++)
+                    reported[changed.get(k)] = true;
+                for(int k=0;k<affected.size();k++)
+                    reported[affected.get(k)] = true;
+                for(int c=0;c<before.length;c++){
+                    double p = probabilities.get(c / 40, c % 40);
+                    assertEquals(full.get(c / 40, c % 40), p, 1e-9, "seed " + seed + " cell " + c);
+                    // every changed probability is reported, or is the (shared) interior one
+                    if(p != before[c] && !reported[c])
+                        assertTrue(p == probabilities.getInteriorProbability() && p != interior,
+                                "seed " + seed + ": cell " + c + " changed but was not reported");
+                }
+            }
+        }
+    }
+
+    @Test
+    void unchangedComponentsAreReused(){
+        Mines mines = new Mines(40, 40, 0, 1);
+        // two separate pockets of numbers, far apart (mines added by hand - only the
+        // components are checked here)
+        mines.addMine(5, 5);
+        mines.addMine(34, 34);
+        mines.open(5, 6);
+        mines.open(34, 35);
+        MinesProbability probabilities = new MinesProbability(mines);
+        probabilities.update();
+        assertEquals(2, probabilities.getRecomputedCount());
+        CellList changed = new CellList();
+        mines.drainChanges(changed);
+        changed.clear();
+        mines.open(4, 5);
+        mines.drainChanges(changed);
+        assertFalse(probabilities.update(changed, null));
+        assertEquals(1, probabilities.getRecomputedCount());
+        assertEquals(2, probabilities.getComponentCount());
+    }
+}
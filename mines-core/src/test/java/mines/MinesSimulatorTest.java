@@ -0,0 +1,31 @@
+package mines;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinesSimulatorTest {
+
+    @Test
+    void runIsReproducible(){
+        MinesSimulator simulator = new MinesSimulator(9, 9, 10);
+        MinesSimulator.Report a = simulator.run(300, 42), b = simulator.run(300, 42);
+        assertEquals(300, a.games);
+        assertEquals(a.wins, b.wins);
+        assertEquals(a.guesses, b.guesses);
+        assertTrue(a.ciLow <= a.winRate && a.winRate <= a.ciHigh);
+    }
+
+    @Test
+    void boardWithoutMinesIsAlwaysWon(){
+        MinesSimulator.Report r = new MinesSimulator(5, 5, 0).run(50, 1);
+        assertEquals(50, r.wins);
+        assertEquals(50, r.guesses); // only the first click
+    }
+
+    @Test
+    void gameSeedsDiffer(){
+        assertNotEquals(MinesSimulator.gameSeed(1, 0), MinesSimulator.gameSeed(1, 1));
+        assertNotEquals(MinesSimulator.gameSeed(1, 0), MinesSimulator.gameSeed(2, 0));
+    }
+}
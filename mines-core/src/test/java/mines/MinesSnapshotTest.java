@@ -0,0 +1,82 @@
+package mines;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinesSnapshotTest {
+    @TempDir
+    Path dir;
+
+    // helper method for a game in progress: opened, flagged, and flagged-then-opened cells
+    private static Mines playedBoard(int height, int width, int numMines, long seed){
+        Mines mines = new Mines(height, width, numMines, seed);
+        int x = height / 2, y = width / 2;
+        if(mines.hasMine(x, y))
+            mines.moveMine(x, y);
+        mines.open(x, y);
+        for(int cell=0;cell<height*width;cell+=7){
+            int i = cell / width, j = cell % width;
+            if(!mines.isOpen(i, j))
+                mines.toggleFlag(i, j);
+            else if(cell % 3 == 0)
+                mines.toggleFlag(i, j); // a flag left on an opened cell
+        }
+        return mines;
+    }
+
+    // helper method for comparing the full state of two boards
+    private static void assertSameBoard(Mines expected, Mines actual){
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getNumMines(), actual.getNumMines());
+        assertEquals(expected.getSeed(), actual.getSeed());
+        assertEquals(expected.getOpenedCells(), actual.getOpenedCells());
+        assertEquals(expected.isDone(), actual.isDone());
+        assertEquals(expected.toString(), actual.toString());
+        for(int cell=0;cell<expected.getHeight()*expected.getWidth();cell++)
+            assertEquals(expected.stateOf(cell), actual.stateOf(cell), "cell " + cell);
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        for(int[] size : new int[][]{{1, 1, 0}, {9, 9, 10}, {17, 33, 100}, {300, 301, 9000}}){
+            Mines mines = playedBoard(size[0], size[1], size[2], size[0] * 31L + size[1]);
+            Path file = dir.resolve("board-" + size[0] + ".mines");
+            MinesSnapshot.save(mines, file);
+            Mines loaded = MinesSnapshot.load(file);
+            assertSameBoard(mines, loaded);
+            mines.setShowAll(true);
+            loaded.setShowAll(true);
+            assertEquals(mines.toString(), loaded.toString());
+        }
+    }
+
+    @Test
+    void loadedBoardMovesMinesLikeTheSavedOne() throws IOException {
+        Mines mines = playedBoard(16, 30, 99, 5);
+        Path file = dir.resolve("board.mines");
+        MinesSnapshot.save(mines, file);
+        Mines loaded = MinesSnapshot.load(file);
+        for(int cell=0;cell<16*30;cell++){
+            int x = cell / 30, y = cell % 30;
+            if(mines.hasMine(x, y) && !mines.isOpen(x, y))
+                assertEquals(mines.moveMine(x, y), loaded.moveMine(x, y));
+        }
+        assertSameBoard(mines, loaded);
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("other");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> MinesSnapshot.load(file));
+        Files.write(file, new byte[3]);
+        assertThrows(IOException.class, () -> MinesSnapshot.load(file));
+    }
+}
@@ -0,0 +1,61 @@
+package mines;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinesSolverTest {
+
+    @Test
+    void deducedMovesAreCertain(){
+        int games = 0;
+        for(long seed=0;seed<60;seed++){
+            Mines mines = new Mines(4, 5, 3 + (int) (seed % 3), seed);
+            if(mines.hasMine(2, 2))
+                mines.moveMine(2, 2);
+            MinesSolver solver = new MinesSolver(mines);
+            MinesSolver.Result r;
+            do{
+                // what can be known before the move (the solver's own flags count as hidden)
+                BruteForce known = new BruteForce(mines);
+                long guesses = solver.getGuesses();
+                r = solver.step();
+                int cell = solver.getLastCell();
+                if(r == MinesSolver.Result.OPENED)
+                    assertTrue(known.isSafe(cell), "seed " + seed + ": opened a cell that may be mined");
+                else if(r == MinesSolver.Result.FLAGGED)
+                    assertTrue(known.isMine(cell), "seed " + seed + ": flagged a cell that may be safe");
+                else if(r == MinesSolver.Result.LOST)
+                    assertEquals(guesses + 1, solver.getGuesses(), "seed " + seed + ": lost without guessing");
+            }while(r == MinesSolver.Result.OPENED || r == MinesSolver.Result.FLAGGED || r == MinesSolver.Result.GUESSED);
+            games++;
+        }
+        assertEquals(60, games);
+    }
+
+    @Test
+    void noGuessingGetsStuckInsteadOfLosing(){
+        for(long seed=0;seed<200;seed++){
+            Mines mines = new Mines(9, 9, 10, seed);
+            if(mines.hasMine(4, 4))
+                mines.moveMine(4, 4);
+            mines.open(4, 4);
+            MinesSolver.Result r = new MinesSolver(mines, false).solve();
+            assertTrue(r == MinesSolver.Result.WON || r == MinesSolver.Result.STUCK, "seed " + seed + ": " + r);
+            assertEquals(r == MinesSolver.Result.WON, mines.isDone());
+        }
+    }
+
+    @Test
+    void findSafeCellIsSafe(){
+        for(long seed=0;seed<100;seed++){
+            Mines mines = new Mines(9, 9, 10, seed);
+            if(mines.hasMine(4, 4))
+                mines.moveMine(4, 4);
+            mines.open(4, 4);
+            int cell = new MinesSolver(mines, false).findSafeCell();
+            if(cell >= 0)
+                assertFalse(mines.hasMine(cell / 9, cell % 9), "seed " + seed);
+        }
+    }
+}
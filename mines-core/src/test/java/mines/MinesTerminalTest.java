@@ -0,0 +1,48 @@
+package mines;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinesTerminalTest {
+
+    // helper method for running commands and collecting the output lines
+    private static String[] run(String... commands){
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MinesTerminal terminal = new MinesTerminal(new PrintStream(bytes, true), false);
+        for(String command : commands)
+            terminal.command(command);
+        return bytes.toString().split("\n");
+    }
+
+    @Test
+    void firstOpenIsSafe(){
+        for(int seed=0;seed<20;seed++){
+            String[] out = run("new 9 9 70 " + seed, "open 4 4");
+            assertNotEquals("lost", out[1]);
+        }
+    }
+
+    @Test
+    void endlessGame(){
+        String[] out = run("endless 0.2 7", "open 0 0", "flag 0 1", "print");
+        assertEquals("endless, density 0.2", out[0]);
+        assertEquals("playing", out[1]);
+        assertEquals("playing", out[2]);
+        assertEquals("-10 -19", out[3]); // view centered on the last move (0,1)
+        assertEquals(3 + 1 + 21, out.length);
+        // the opened start cell is in the middle of the view
+        assertNotEquals('.', out[4 + 10].charAt(19));
+    }
+
+    @Test
+    void badCommands(){
+        String[] out = run("jump", "new 9 9 10 1", "open 9 0", "open 1");
+        assertTrue(out[0].startsWith("error: unknown command"));
+        assertEquals("error: cell out of the board", out[2]);
+        assertTrue(out[3].startsWith("error:"));
+    }
+}
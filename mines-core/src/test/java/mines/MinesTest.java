@@ -0,0 +1,168 @@
+package mines;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinesTest {
+
+    // helper method for counting the mines of a board
+    private static int countMines(Mines mines){
+        int count = 0;
+        for(int i=0;i<mines.getHeight();i++){
+            for(int j=0;j<mines.getWidth();j++){
+                if(mines.hasMine(i, j))
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void placesExactlyTheMines(){
+        for(int numMines : new int[]{0, 1, 10, 50, 99, 100}){
+            Mines mines = new Mines(10, 10, numMines, numMines);
+            assertEquals(numMines, countMines(mines));
+        }
+        assertEquals(100, countMines(new Mines(10, 10, 500, 1)));
+    }
+
+    @Test
+    void sameSeedSameBoard(){
+        Mines a = new Mines(30, 40, 200, 7), b = new Mines(30, 40, 200, 7);
+        a.setShowAll(true);
+        b.setShowAll(true);
+        assertEquals(a.toString(), b.toString());
+    }
+
+    @Test
+    void seedGivesTheJavaUtilRandomLayout(){
+        // Floyd's sampling with java.util.Random, as Mines places its mines
+        int cells = 24 * 24, numMines = 99;
+        boolean[] expected = new boolean[cells];
+        Random rnd = new Random(123);
+        for(int j=cells-numMines;j<cells;j++){
+            int t = rnd.nextInt(j + 1);
+            expected[expected[t] ? j : t] = true;
+        }
+        Mines mines = new Mines(24, 24, numMines, 123);
+        for(int cell=0;cell<cells;cell++)
+            assertEquals(expected[cell], mines.hasMine(cell / 24, cell % 24));
+    }
+
+    @Test
+    void copyMovesMinesLikeTheOriginal(){
+        Mines mines = new Mines(10, 10, 30, 9);
+        Mines copy = new Mines(mines);
+        for(int cell=0;cell<100;cell++){
+            if(mines.hasMine(cell / 10, cell % 10))
+                assertEquals(mines.moveMine(cell / 10, cell % 10), copy.moveMine(cell / 10, cell % 10));
+        }
+    }
+
+    @Test
+    void moveMineReturnsTheNewCell(){
+        for(long seed=0;seed<50;seed++){
+            Mines mines = new Mines(8, 8, 20 + (int) (seed % 40), seed);
+            int x = (int) (seed % 8), y = (int) (seed / 8 % 8);
+            boolean had = mines.hasMine(x, y);
+            int cell = mines.moveMine(x, y);
+            assertFalse(mines.hasMine(x, y));
+            if(had){
+                assertNotEquals(x * 8 + y, cell);
+                assertTrue(mines.hasMine(cell / 8, cell % 8));
+                assertEquals(mines.getNumMines(), countMines(mines));
+            }
+            else
+                assertEquals(-1, cell);
+        }
+        // no free cell - the mine is removed
+        Mines full = new Mines(3, 3, 9, 1);
+        assertEquals(-1, full.moveMine(1, 1));
+        assertEquals(8, countMines(full));
+    }
+
+    @Test
+    void openFloodsAndCountsToTheWin(){
+        Mines mines = new Mines(20, 20, 0, 1);
+        CellList revealed = new CellList();
+        assertTrue(mines.open(5, 5, revealed));
+        assertEquals(400, revealed.size());
+        assertEquals(400, mines.getOpenedCells());
+        assertTrue(mines.isDone());
+        assertFalse(mines.open(5, 5));
+    }
+
+    @Test
+    void codesFollowTheCellState(){
+        Mines mines = new Mines(3, 3, 0, 1);
+        mines.addMine(0, 0);
+        assertEquals(Mines.CODE_HIDDEN, mines.code(1, 1));
+        mines.toggleFlag(1, 1);
+        assertEquals(Mines.CODE_FLAG, mines.code(1, 1));
+        mines.toggleFlag(1, 1);
+        mines.open(1, 1);
+        assertEquals(1, mines.code(1, 1));
+        assertEquals("1", mines.get(1, 1));
+        mines.setShowAll(true);
+        assertEquals(Mines.CODE_MINE, mines.code(0, 0));
+        assertEquals("X1 \n11 \n   \n", mines.toString());
+    }
+
+    // helper method for a board with opened, flagged and hidden cells
+    private static Mines playedBoard(){
+        Mines mines = new Mines(12, 17, 30, 5);
+        Random rnd = new Random(2);
+        for(int k=0;k<40;k++){
+            int x = rnd.nextInt(12), y = rnd.nextInt(17);
+            if(k % 3 == 0)
+                mines.toggleFlag(x, y);
+            else if(!mines.hasMine(x, y))
+                mines.open(x, y);
+        }
+        return mines;
+    }
+
+    @Test
+    void fillMatchesCodeOnARectangle(){
+        Mines mines = playedBoard();
+        for(boolean showAll : new boolean[]{false, true}){
+            mines.setShowAll(showAll);
+            byte[] region = new byte[5 * 7 + 3];
+            region[35] = 99; // past the rectangle - left alone
+            mines.fill(region, 4, 9, 5, 7);
+            for(int i=0;i<5;i++){
+                for(int j=0;j<7;j++)
+                    assertEquals(mines.code(4 + i, 9 + j), region[i * 7 + j], i + "," + j);
+            }
+            assertEquals(99, region[35]);
+            // the whole board, and text built from it, match appendTo
+            byte[] all = new byte[12 * 17];
+            mines.fill(all, 0, 0, 12, 17);
+            StringBuilder text = new StringBuilder();
+            for(int k=0;k<all.length;k++){
+                text.append(Mines.symbol(all[k]));
+                if(k % 17 == 16)
+                    text.append('\n');
+            }
+            assertEquals(text.toString(), mines.toString());
+        }
+        // an empty rectangle is fine
+        mines.fill(new byte[0], 12, 17, 0, 0);
+    }
+
+    @Test
+    void fillRejectsBadRectangles(){
+        Mines mines = new Mines(5, 6, 4, 1);
+        byte[] region = new byte[64];
+        assertThrows(IndexOutOfBoundsException.class, () -> mines.fill(region, -1, 0, 2, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> mines.fill(region, 0, -1, 2, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> mines.fill(region, 4, 0, 2, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> mines.fill(region, 0, 5, 2, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> mines.fill(region, 0, 0, -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> mines.fill(new byte[5], 0, 0, 2, 3));
+        mines.fill(new byte[6], 3, 4, 2, 2);
+    }
+}
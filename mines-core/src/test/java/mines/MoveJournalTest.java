@@ -0,0 +1,117 @@
+package mines;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveJournalTest {
+    @TempDir
+    Path dir;
+
+    // helper method for the full state of a board as a string
+    private static String state(Mines mines){
+        StringBuilder b = new StringBuilder(mines.toString());
+        for(int cell=0;cell<mines.getHeight()*mines.getWidth();cell++)
+            b.append(mines.stateOf(cell));
+        return b.append(' ').append(mines.getOpenedCells()).toString();
+    }
+
+    @Test
+    void replayRebuildsEveryMove() throws IOException {
+        Path file = dir.resolve("game.mjnl");
+        Mines mines = new Mines(20, 30, 120, 77);
+        List<String> states = new ArrayList<>();
+        states.add(state(mines));
+        Random rnd = new Random(1);
+        try(MoveJournal journal = new MoveJournal(file, mines)){
+            for(int k=0;k<500;k++){
+                int x = rnd.nextInt(20), y = rnd.nextInt(30), op = 1 + rnd.nextInt(3);
+                journal.append(op, x, y);
+                MoveReplay.apply(mines, MoveJournal.record(op, x, y));
+                states.add(state(mines));
+            }
+            assertEquals(500, journal.getMoves());
+        }
+        MoveReplay replay = new MoveReplay(file, 64);
+        assertEquals(500, replay.getMoveCount());
+        assertEquals(64, replay.getCheckpointInterval());
+        assertEquals(states.get(500), state(replay.finalBoard()));
+        for(int n : new int[]{0, 1, 63, 64, 65, 200, 499})
+            assertEquals(states.get(n), state(replay.boardAt(n)), "after " + n + " moves");
+        // boards from a replay are independent of it
+        replay.boardAt(10).open(0, 0);
+        assertEquals(states.get(10), state(replay.boardAt(10)));
+    }
+
+    @Test
+    void checkpointsStayWithinTheirBudget() throws IOException {
+        // 4M cells: the budget holds 64 checkpoints, the journal asks for 201
+        Path file = dir.resolve("large.mjnl");
+        Mines mines = new Mines(2048, 2048, 0, 3);
+        try(MoveJournal journal = new MoveJournal(file, mines)){
+            for(int k=0;k<200;k++)
+                journal.append(MoveJournal.FLAG, k, k);
+        }
+        MoveReplay replay = new MoveReplay(file, 1);
+        assertEquals(4, replay.getCheckpointInterval());
+        Mines board = replay.boardAt(123);
+        for(int k=0;k<200;k++)
+            assertEquals(k < 123, board.isFlagged(k, k));
+    }
+
+    @Test
+    void recordsPackTheMove(){
+        long record = MoveJournal.record(MoveJournal.MOVE_MINE, Integer.MAX_VALUE, 12345);
+        assertEquals(MoveJournal.MOVE_MINE, MoveJournal.op(record));
+        assertEquals(Integer.MAX_VALUE, MoveJournal.x(record));
+        assertEquals(12345, MoveJournal.y(record));
+    }
+
+    // helper method for waiting until a file has the given size (or 5 seconds passed)
+    private static long awaitSize(Path file, long size) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while(Files.size(file) != size && System.nanoTime() < deadline)
+            Thread.sleep(20);
+        return Files.size(file);
+    }
+
+    @Test
+    void idleMovesAreWrittenWithoutClose() throws IOException, InterruptedException {
+        Path file = dir.resolve("open.mjnl");
+        MoveJournal journal = new MoveJournal(file, new Mines(9, 9, 10, 1));
+        try{
+            long start = System.nanoTime();
+            journal.append(MoveJournal.OPEN, 4, 4);
+            journal.append(MoveJournal.FLAG, 0, 0);
+            assertEquals(MoveJournal.HEADER_SIZE, Files.size(file)); // batched
+            // no more moves - the timer writes the batch out
+            assertEquals(MoveJournal.HEADER_SIZE + 2 * MoveJournal.RECORD_SIZE,
+                    awaitSize(file, MoveJournal.HEADER_SIZE + 2 * MoveJournal.RECORD_SIZE));
+            assertTrue(System.nanoTime() - start >= 900_000_000L, "written before its second was up");
+            assertEquals(2, new MoveReplay(file, 16).getMoveCount());
+            // the next batch gets a timer of its own
+            journal.append(MoveJournal.OPEN, 8, 8);
+            assertEquals(MoveJournal.HEADER_SIZE + 3 * MoveJournal.RECORD_SIZE,
+                    awaitSize(file, MoveJournal.HEADER_SIZE + 3 * MoveJournal.RECORD_SIZE));
+        }finally{
+            journal.close();
+        }
+        assertEquals(3, new MoveReplay(file, 16).getMoveCount());
+    }
+
+    @Test
+    void rejectsBadMoves() throws IOException {
+        try(MoveJournal journal = new MoveJournal(dir.resolve("bad.mjnl"), new Mines(9, 9, 10, 1))){
+            assertThrows(IllegalArgumentException.class, () -> journal.append(0, 1, 1));
+            assertThrows(IllegalArgumentException.class, () -> journal.append(MoveJournal.OPEN, -1, 1));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package mines;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NoGuessGeneratorTest {
+
+    // helper method for the mine layout of a board
+    private static String layout(Mines mines){
+        Mines copy = new Mines(mines);
+        copy.setShowAll(true);
+        return copy.toString();
+    }
+
+    @Test
+    void boardsAreSolvedWithoutGuessing(){
+        NoGuessGenerator generator = new NoGuessGenerator(9, 9, 10, 10_000);
+        for(long seed=0;seed<20;seed++){
+            Mines mines = generator.generate(4, 4, seed);
+            assertFalse(mines.hasMine(4, 4));
+            mines.open(4, 4);
+            assertEquals(MinesSolver.Result.WON, new MinesSolver(mines, false).solve(), "seed " + seed);
+        }
+        assertEquals(20, generator.getBoards());
+        assertEquals(0, generator.getFallbacks());
+        assertTrue(generator.getCandidates() >= 20);
+    }
+
+    @Test
+    void sameSeedSameBoard(){
+        // expert boards need many candidates, tried in parallel - the result must not depend on timing
+        for(long seed=0;seed<3;seed++){
+            Mines a = new NoGuessGenerator(16, 30, 99, 60_000).generate(8, 15, seed);
+            Mines b = new NoGuessGenerator(16, 30, 99, 60_000).generate(8, 15, seed);
+            assertEquals(a.getSeed(), b.getSeed());
+            assertEquals(layout(a), layout(b));
+        }
+    }
+
+    @Test
+    void fallsBackAfterTheTimeout(){
+        NoGuessGenerator generator = new NoGuessGenerator(16, 30, 99, 0);
+        Mines mines = generator.generate(8, 15, 1);
+        assertEquals(99, mines.getNumMines());
+        assertEquals(1, generator.getFallbacks());
+    }
+}
@@ -0,0 +1,88 @@
+package mines;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelRevealTest {
+    private final int threshold = Mines.getParallelRevealThreshold();
+
+    @BeforeEach
+    void checkPool(){
+        // the parallel fill only runs on a common pool with several threads (see the surefire argLine)
+        assertTrue(ForkJoinPool.getCommonPoolParallelism() > 1, "common pool parallelism is 1");
+    }
+
+    @AfterEach
+    void restoreThreshold(){
+        Mines.setParallelRevealThreshold(threshold);
+    }
+
+    // helper method for the sorted cells of a list
+    private static int[] sorted(CellList list){
+        int[] cells = new int[list.size()];
+        for(int k=0;k<cells.length;k++)
+            cells[k] = list.get(k);
+        Arrays.sort(cells);
+        return cells;
+    }
+
+    // open the same clicks on two copies of a board, sequentially and in parallel
+    private static void compare(Mines board, int[] clicks){
+        Mines sequential = new Mines(board), parallel = new Mines(board);
+        for(int k=0;k<clicks.length;k+=2){
+            int x = clicks[k], y = clicks[k + 1];
+            CellList seqCells = new CellList(), parCells = new CellList();
+            Mines.setParallelRevealThreshold(Integer.MAX_VALUE);
+            boolean seqOpened = sequential.open(x, y, seqCells);
+            Mines.setParallelRevealThreshold(0);
+            boolean parOpened = parallel.open(x, y, parCells);
+            assertEquals(seqOpened, parOpened);
+            assertArrayEquals(sorted(seqCells), sorted(parCells), "click " + x + "," + y);
+            assertEquals(sequential.getOpenedCells(), parallel.getOpenedCells());
+            assertEquals(sequential.isDone(), parallel.isDone());
+            // the change logs agree too (or one of them gave up and marks every cell)
+            CellList seqChanges = new CellList(), parChanges = new CellList();
+            boolean seqAll = sequential.drainChanges(seqChanges), parAll = parallel.drainChanges(parChanges);
+            if(!seqAll && !parAll)
+                assertArrayEquals(sorted(seqChanges), sorted(parChanges));
+        }
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+
+    @Test
+    void sameCellsAsTheSequentialFill(){
+        Random rnd = new Random(11);
+        for(int round=0;round<20;round++){
+            int height = 50 + rnd.nextInt(400), width = 50 + rnd.nextInt(400);
+            // sparse boards have large empty regions to flood
+            int numMines = (int) (height * width * (0.01 + rnd.nextDouble() * 0.15));
+            Mines board = new Mines(height, width, numMines, rnd.nextLong());
+            int[] clicks = new int[20];
+            for(int k=0;k<clicks.length;k+=2){
+                clicks[k] = rnd.nextInt(height);
+                clicks[k + 1] = rnd.nextInt(width);
+            }
+            compare(board, clicks);
+        }
+    }
+
+    @Test
+    void largeEmptyBoard(){
+        // a single click opens the whole board (many forked tasks)
+        Mines board = new Mines(1500, 1500, 0, 1);
+        compare(board, new int[]{700, 700});
+    }
+
+    @Test
+    void thresholdIsConfigurable(){
+        Mines.setParallelRevealThreshold(1234);
+        assertEquals(1234, Mines.getParallelRevealThreshold());
+    }
+}
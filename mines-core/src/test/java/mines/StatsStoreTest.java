@@ -0,0 +1,171 @@
+package mines;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsStoreTest {
+    @TempDir
+    Path dir;
+
+    // helper method for recording the k-th game of a test sequence
+    // (three configurations, every third game lost)
+    private static void recordGame(StatsStore store, int k) throws IOException {
+        int size = 9 + (k % 3) * 7;
+        store.record(size, size, 10 + k % 3, k % 3 != 0, 1000 + k % 500, 20 + k % 7);
+    }
+
+    // helper method for the statistics of the games 0..count-1 of the test sequence
+    private static String expected(int from, int count) throws IOException {
+        StatsStore memory = new StatsStore();
+        for(int k=from;k<from+count;k++)
+            recordGame(memory, k);
+        return memory.toString();
+    }
+
+    // helper method for writing a log file by hand (games of the test sequence)
+    private static void writeLog(Path file, long generation, int from, int count) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(StatsStore.HEADER_SIZE + count * StatsStore.RECORD_SIZE);
+        b.putInt(StatsStore.LOG_MAGIC).putInt(StatsStore.VERSION).putLong(generation);
+        for(int k=from;k<from+count;k++){
+            int size = 9 + (k % 3) * 7, clicks = 20 + k % 7;
+            b.putInt(size).putInt(size).putInt(10 + k % 3).putInt(k % 3 != 0 ? clicks | 1 << 31 : clicks)
+                    .putLong(1000 + k % 500);
+        }
+        b.flip();
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)){
+            while(b.hasRemaining())
+                ch.write(b);
+        }
+    }
+
+    @Test
+    void reopenedStoreHasTheSameStats() throws IOException {
+        String written;
+        try(StatsStore store = new StatsStore(dir)){
+            assertTrue(store.isPersistent());
+            for(int k=0;k<100;k++)
+                recordGame(store, k);
+            written = store.toString();
+            StatsStore.Stats s = store.get(9, 9, 10);
+            assertEquals(34, s.getGames());
+            assertEquals(0, s.getWins());
+            assertEquals(-1, s.getBestMillis());
+            assertTrue(s.toString().contains("best -,"), s.toString());
+            assertEquals(66, store.get(16, 16, 11).getWins() + store.get(23, 23, 12).getWins());
+        }
+        assertEquals(expected(0, 100), written);
+        try(StatsStore store = new StatsStore(dir)){
+            assertEquals(written, store.toString());
+            assertEquals(3, store.getConfigurationCount());
+            assertEquals(100, store.getTotal().getGames());
+            assertEquals(1001, store.get(16, 16, 11).getBestMillis());
+            recordGame(store, 100);
+        }
+        try(StatsStore store = new StatsStore(dir)){
+            assertEquals(expected(0, 101), store.toString());
+        }
+    }
+
+    @Test
+    void compactedStoreReopens() throws IOException {
+        int games = (int) StatsStore.COMPACT_RECORDS + 100;
+        try(StatsStore store = new StatsStore(dir)){
+            for(int k=0;k<games;k++)
+                recordGame(store, k);
+        } // close waits for the compaction
+        assertTrue(Files.exists(dir.resolve(StatsStore.SNAPSHOT)));
+        assertFalse(Files.exists(dir.resolve(StatsStore.OLD_LOG)));
+        // the new log only holds the games after the compaction started
+        assertTrue(Files.size(dir.resolve(StatsStore.LOG)) < StatsStore.HEADER_SIZE + 1000L * StatsStore.RECORD_SIZE);
+        try(StatsStore store = new StatsStore(dir)){
+            assertEquals(expected(0, games), store.toString());
+            assertEquals(games, store.getTotal().getGames());
+        }
+    }
+
+    @Test
+    void cutOffLogKeepsTheCompleteRecords() throws IOException {
+        try(StatsStore store = new StatsStore(dir)){
+            for(int k=0;k<10;k++)
+                recordGame(store, k);
+        }
+        Path log = dir.resolve(StatsStore.LOG);
+        try(FileChannel ch = FileChannel.open(log, StandardOpenOption.WRITE)){
+            ch.truncate(ch.size() - StatsStore.RECORD_SIZE / 2); // the last game half written
+        }
+        try(StatsStore store = new StatsStore(dir)){
+            assertEquals(expected(0, 9), store.toString());
+            // the next game replaces the partial record
+            recordGame(store, 9);
+        }
+        assertEquals(StatsStore.HEADER_SIZE + 10L * StatsStore.RECORD_SIZE, Files.size(log));
+        try(StatsStore store = new StatsStore(dir)){
+            assertEquals(expected(0, 10), store.toString());
+        }
+    }
+
+    @Test
+    void generationsAreMergedOnce() throws IOException {
+        // a compaction cut short: the old log moved away, the new log started, no snapshot yet
+        writeLog(dir.resolve(StatsStore.OLD_LOG), 1, 0, 40);
+        writeLog(dir.resolve(StatsStore.LOG), 2, 40, 25);
+        try(StatsStore store = new StatsStore(dir)){
+            assertEquals(expected(0, 65), store.toString());
+        }
+        assertTrue(Files.exists(dir.resolve(StatsStore.SNAPSHOT)));
+        assertFalse(Files.exists(dir.resolve(StatsStore.OLD_LOG)));
+        try(StatsStore store = new StatsStore(dir)){
+            assertEquals(expected(0, 65), store.toString());
+        }
+        // cut short after the snapshot was written: logs it already covers are not counted again
+        // (the snapshot covers generation 2, the store went on with log 3)
+        writeLog(dir.resolve(StatsStore.OLD_LOG), 2, 40, 25);
+        writeLog(dir.resolve(StatsStore.LOG), 3, 65, 10);
+        try(StatsStore store = new StatsStore(dir)){
+            assertEquals(expected(0, 75), store.toString());
+        }
+        try(StatsStore store = new StatsStore(dir)){
+            assertEquals(expected(0, 75), store.toString());
+        }
+    }
+
+    @Test
+    void secondStoreOnADirectoryStaysInMemory() throws IOException {
+        try(StatsStore first = new StatsStore(dir)){
+            recordGame(first, 1);
+            try(StatsStore second = new StatsStore(dir)){
+                assertFalse(second.isPersistent());
+                assertEquals(0, second.getTotal().getGames());
+                recordGame(second, 2);
+                assertEquals(1, second.getTotal().getGames());
+            }
+            recordGame(first, 4);
+        }
+        // the directory only has the first store's games, and is free again
+        try(StatsStore store = new StatsStore(dir)){
+            assertTrue(store.isPersistent());
+            StatsStore memory = new StatsStore();
+            recordGame(memory, 1);
+            recordGame(memory, 4);
+            assertEquals(memory.toString(), store.toString());
+        }
+    }
+
+    @Test
+    void rejectsBadGames(){
+        StatsStore store = new StatsStore();
+        assertThrows(IllegalArgumentException.class, () -> store.record(0, 9, 10, true, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> store.record(9, 9, 10, true, -1, 1));
+        assertEquals(new StatsStore.Stats().toString(), store.get(9, 9, 10).toString());
+    }
+}
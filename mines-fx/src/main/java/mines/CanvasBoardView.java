@@ -0,0 +1,208 @@
+package mines;
+
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/*
+CanvasBoardView: A virtualized renderer for large minefields.
+Instead of one Button per cell, the board is drawn on a single Canvas the size of
+the visible viewport, and only the cells inside the viewport are painted.
+Scroll bars (or the mouse wheel) move the viewport, Ctrl + mouse wheel zooms,
+and mouse clicks are mapped back to cell coordinates and passed to a handler.
+With mine probabilities set (see MinesProbability), hidden cells are tinted by them.
+ */
+
+public class CanvasBoardView extends BorderPane {
+
+    // callback for a click on a cell (x = row, y = column)
+    public interface CellClickHandler {
+        void cellClicked(MouseButton button, int x, int y);
+    }
+
+    // tile size limits (in pixels) for zooming
+    private static final double MIN_TILE_SIZE = 4, MAX_TILE_SIZE = 60;
+    // below this tile size numbers are not drawn (unreadable anyway)
+    private static final double MIN_TEXT_TILE_SIZE = 12;
+
+    // cell colors (match the look of the button tiles)
+    private static final Color closedFill = Color.LIGHTGRAY;
+    private static final Color closedBorder = Color.GRAY;
+    private static final Color openFill = Color.LIGHTBLUE;
+    private static final Color safeMineFill = Color.WHEAT;
+    private static final Color lossMineFill = Color.RED;
+    private static final Color mineFill = Color.MEDIUMVIOLETRED;
+
+    private final Canvas canvas = new Canvas();
+    private final ScrollBar hBar = new ScrollBar();
+    private final ScrollBar vBar = new ScrollBar();
+    private final Mines mineField;
+    private final CellClickHandler clickHandler;
+
+    private double tileSize = 30;
+    private Font font = Font.font(tileSize * 0.5);
+    // end-of-game state (changes how mines are drawn)
+    private boolean gameWon, gameLost;
+    private int lossX = -1, lossY = -1;
+    // cell codes of the viewport row being painted (reused between redraws)
+    private byte[] rowCodes = new byte[0];
+    // mine probabilities of the hidden cells (null = not shown)
+    private MinesProbability probabilities;
+
+    public CanvasBoardView(Mines mineField, CellClickHandler clickHandler){
+        this.mineField = mineField;
+        this.clickHandler = clickHandler;
+        // the canvas always covers the viewport only (not the whole board)
+        Pane canvasHolder = new Pane(canvas);
+        canvasHolder.setMinSize(0, 0);
+        canvas.widthProperty().bind(canvasHolder.widthProperty());
+        canvas.heightProperty().bind(canvasHolder.heightProperty());
+        canvas.widthProperty().addListener(o -> viewportChanged());
+        canvas.heightProperty().addListener(o -> viewportChanged());
+        vBar.setOrientation(Orientation.VERTICAL);
+        hBar.valueProperty().addListener(o -> redraw());
+        vBar.valueProperty().addListener(o -> redraw());
+        setCenter(canvasHolder);
+        setRight(vBar);
+        setBottom(hBar);
+        // map clicks back to cells
+        canvas.setOnMouseClicked(e -> {
+            int x = (int) ((e.getY() + vBar.getValue()) / tileSize);
+            int y = (int) ((e.getX() + hBar.getValue()) / tileSize);
+            if(x >= 0 && x < mineField.getHeight() && y >= 0 && y < mineField.getWidth())
+                clickHandler.cellClicked(e.getButton(), x, y);
+        });
+        // mouse wheel scrolls, Ctrl + mouse wheel zooms around the cursor
+        canvas.setOnScroll(e -> {
+            if(e.isControlDown())
+                zoom(e.getDeltaY() > 0 ? 1.25 : 0.8, e.getX(), e.getY());
+            else{
+                scrollTo(hBar, hBar.getValue() - e.getDeltaX());
+                scrollTo(vBar, vBar.getValue() - e.getDeltaY());
+            }
+            e.consume();
+        });
+    }
+
+    // set the end-of-game state (x,y is the final clicked cell)
+    public void setGameOver(boolean win, int x, int y){
+        gameWon = win;
+        gameLost = !win;
+        lossX = x;
+        lossY = y;
+    }
+
+    // show the mine probabilities of hidden cells (null to stop; redraw to apply)
+    public void setProbabilities(MinesProbability probabilities){
+        this.probabilities = probabilities;
+    }
+
+    // change the tile size by a factor, keeping the point under (px,py) in place
+    private void zoom(double factor, double px, double py){
+        double newSize = Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, tileSize * factor));
+        double scale = newSize / tileSize;
+        double h = (hBar.getValue() + px) * scale - px;
+        double v = (vBar.getValue() + py) * scale - py;
+        tileSize = newSize;
+        font = Font.font(tileSize * 0.5);
+        updateScrollBars();
+        scrollTo(hBar, h);
+        scrollTo(vBar, v);
+        redraw();
+    }
+
+    private static void scrollTo(ScrollBar bar, double value){
+        bar.setValue(Math.max(bar.getMin(), Math.min(bar.getMax(), value)));
+    }
+
+    private void viewportChanged(){
+        updateScrollBars();
+        redraw();
+    }
+
+    // fit scroll ranges (in pixels) to the board size and viewport
+    private void updateScrollBars(){
+        double boardWidth = mineField.getWidth() * tileSize;
+        double boardHeight = mineField.getHeight() * tileSize;
+        hBar.setMax(Math.max(0, boardWidth - canvas.getWidth()));
+        vBar.setMax(Math.max(0, boardHeight - canvas.getHeight()));
+        hBar.setVisibleAmount(canvas.getWidth());
+        vBar.setVisibleAmount(canvas.getHeight());
+        hBar.setUnitIncrement(tileSize);
+        vBar.setUnitIncrement(tileSize);
+        scrollTo(hBar, hBar.getValue());
+        scrollTo(vBar, vBar.getValue());
+    }
+
+    // paint the cells inside the viewport
+    public void redraw(){
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double w = canvas.getWidth(), h = canvas.getHeight();
+        gc.setFill(Color.WHITESMOKE);
+        gc.fillRect(0, 0, w, h);
+        double left = hBar.getValue(), top = vBar.getValue();
+        int firstRow = (int) (top / tileSize);
+        int firstCol = (int) (left / tileSize);
+        int lastRow = Math.min(mineField.getHeight() - 1, (int) ((top + h) / tileSize));
+        int lastCol = Math.min(mineField.getWidth() - 1, (int) ((left + w) / tileSize));
+        boolean drawText = tileSize >= MIN_TEXT_TILE_SIZE;
+        gc.setFont(font);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setLineWidth(1);
+        int cols = lastCol - firstCol + 1;
+        if(cols <= 0)
+            return;
+        if(rowCodes.length < cols)
+            rowCodes = new byte[cols];
+        for(int i=firstRow;i<=lastRow;i++){
+            mineField.fill(rowCodes, i, firstCol, 1, cols);
+            for(int j=firstCol;j<=lastCol;j++){
+                drawCell(gc, i, j, rowCodes[j - firstCol], j * tileSize - left, i * tileSize - top, drawText);
+            }
+        }
+    }
+
+    // paint a single cell (with the given code, see Mines.code) at pixel position (px,py)
+    // (at the end of the game every cell is shown, so mines have CODE_MINE)
+    private void drawCell(GraphicsContext gc, int x, int y, byte code, double px, double py, boolean drawText){
+        String st = Mines.symbol(code);
+        Color fill = closedFill;
+        if(code == Mines.CODE_MINE){
+            if(gameWon){
+                fill = safeMineFill;
+                st = "M";
+            }
+            else if(gameLost)
+                fill = (x == lossX && y == lossY) ? lossMineFill : mineFill;
+        }
+        else if(code <= 8)
+            fill = openFill;
+        Color textFill = Color.BLACK;
+        if(code == Mines.CODE_HIDDEN && probabilities != null){
+            // tint hidden cells by their mine probability
+            double p = probabilities.get(x, y);
+            textFill = MinesweeperController.probabilityToFill(p);
+            fill = textFill.deriveColor(0, 0.4, 1.3, 1);
+            st = MinesweeperController.probabilityText(p);
+        }
+        else if(code >= 1 && code <= 8)
+            textFill = MinesweeperController.countToFill(code);
+        gc.setFill(fill);
+        gc.fillRect(px, py, tileSize, tileSize);
+        gc.setStroke(closedBorder);
+        gc.strokeRect(px + 0.5, py + 0.5, tileSize - 1, tileSize - 1);
+        if(!drawText || code == 0)
+            return;
+        gc.setFill(textFill);
+        gc.fillText(st, px + tileSize / 2, py + tileSize / 2);
+    }
+}
@@ -3,7 +3,6 @@ package mines;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
-import javafx.scene.image.Image;
 import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
 
@@ -17,6 +16,7 @@ Launches a new game (initially a 10x10 grid version), and allows the user to pla
  */
 
 public class MainForMines extends Application {
+    private MinesweeperController controller;
 
     @Override
     public void start(Stage stage) {
@@ -27,14 +27,13 @@ public class MainForMines extends Application {
             HBox root=(fxmlLoader.load());
             // get controller
             MinesweeperController f = fxmlLoader.getController();
+            controller = f;
             // prepare stage properties
             stage.setTitle("Minesweeper");
             // credit for thumbnail : free icon by modeLiveSky.com
-            stage.getIcons().add(new Image("mines/bomb_128x128.png"));
+            stage.getIcons().add(MinesImages.bomb());
             // initialize the grid-less scene
-            stage.setScene(new Scene(
-                    root, Math.max(205 + f.getWidth() * 30,200),
-                    Math.max(150,25 + f.getHeight() * 30)));
+            stage.setScene(new Scene(root, f.getSceneWidth(), f.getSceneHeight()));
             // use the reset click generates the initial grid
             f.resetButtonClick(null);
 
@@ -44,6 +43,13 @@ public class MainForMines extends Application {
 
     }
 
+    @Override
+    public void stop() {
+        // an unfinished game keeps its journal
+        if (controller != null)
+            controller.shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,34 @@
+package mines;
+
+import javafx.scene.image.Image;
+
+/*
+MinesImages: The images of the UI (window icons), each loaded on first use and then
+shared - not decoded again for every window. They load in the background, so a window
+does not wait for its icon.
+Used on the JavaFX application thread only.
+ */
+
+final class MinesImages {
+    private static Image bomb, happy, sad;
+
+    private MinesImages(){}
+
+    static Image bomb(){
+        if(bomb == null)
+            bomb = new Image("mines/bomb_128x128.png", true);
+        return bomb;
+    }
+
+    static Image happy(){
+        if(happy == null)
+            happy = new Image("mines/happy.png", true);
+        return happy;
+    }
+
+    static Image sad(){
+        if(sad == null)
+            sad = new Image("mines/saddy.png", true);
+        return sad;
+    }
+}
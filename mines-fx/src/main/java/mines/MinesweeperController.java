@@ -0,0 +1,720 @@
+package mines;
+
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.fxml.FXML;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TextField;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.stage.FileChooser;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/*
+
+MinesweeperController: A controller class for te Minesweeper application.
+This class bridges the logic layer of the application (Mines class)
+and the UI - the javaFX dependent MainForMines class.
+This class defines the operations required for the Minesweeper game to run
+from start to finish, including the unique messages for win/loss, and
+defines the necessary operations for starting a new game.
+
+ */
+
+public class MinesweeperController {
+
+    // extension for button (handle coordinates)
+    private static class GridTile extends Button {
+        private final int x;
+        private final int y;
+        private GridTile(int x, int y){
+            this.x=x;
+            this.y=y;
+        }
+    }
+
+    // FXML file variables (scene objects)
+    @FXML
+    private TextField mineCountText;
+
+    @FXML
+    private TextField heightText;
+
+    @FXML
+    private TextField widthText;
+
+    @FXML
+    private Button resetButton;
+
+    @FXML
+    private Button saveButton;
+
+    @FXML
+    private Button loadButton;
+
+    @FXML
+    private CheckBox noGuessBox;
+
+    @FXML
+    private CheckBox probabilityBox;
+
+    @FXML
+    private Label modeLabel;
+
+    // boards with more cells than this are drawn on a canvas instead of a grid of buttons
+    private static final int CANVAS_MODE_CELLS = 4096;
+    // largest initial window size (bigger boards are scrolled)
+    private static final int MAX_SCENE_WIDTH = 1200, MAX_SCENE_HEIGHT = 800;
+
+    // maintain the node that shows the board (scrollable grid, or canvas view)
+    private Region board;
+    // maintain a grid variable (button mode), or a canvas view (large boards)
+    private GridPane grid;
+    private CanvasBoardView canvasView;
+    // maintain one tile per cell (updated in place on refresh)
+    private GridTile[][] tiles;
+    // cells reported as changed by the minefield (reused between refreshes)
+    private final CellList changedCells = new CellList();
+    // hidden cells whose mine probability changed (reused between refreshes)
+    private final CellList probabilityCells = new CellList();
+    // maintain width,height, numMines for UI-logic interface
+    private Integer width,height, numMines ;
+    // maintain the minefield
+    private Mines mineField;
+    // journal of the moves of the current game (only when the mines.journal
+    // system property names a directory for journals; null otherwise). Only new
+    // games are journaled: a journal replays from the seed, and a loaded game
+    // (see MinesSnapshot) did not get to its state by moves the journal could hold
+    private MoveJournal journal;
+    private static final String JOURNAL_DIR = System.getProperty("mines.journal");
+
+    // for user feedback, maintain final clicked cell (if lost, show it differently)
+    private int finalClickedX, finalClickedY;
+    // keep track on game states
+    private boolean gameWon, gameLost, gameRunning;
+    // statistics of all games played, per board configuration (kept in the directory
+    // named by the mines.stats system property, ~/.mines by default; empty = this run only)
+    private static final StatsStore stats = openStats();
+    // clicks and start time of the current game (the clock starts with the first click)
+    private int clicks;
+    private long gameStart;
+
+    // no-guess mode: new boards are solvable by logic from their center cell,
+    // which is opened for the player
+    private boolean noGuess;
+    // boards for the next games, made in the background for the settings in the text fields
+    private final BoardPool boardPool = new BoardPool(3);
+    // "show probabilities" overlay: the mine probability of every hidden cell
+    // (null while the overlay is off or the game is over)
+    private boolean showProbabilities;
+    private MinesProbability probabilities;
+
+    // keep first click ->
+    private boolean firstClick; // we don't want first click to kill player (implemented)
+
+    // graphics - smaller font for the probabilities on hidden tiles
+    private static final Font probabilityFont = Font.font(9);
+
+    // graphics - button font color (fit to neighbor count)
+    private static final Color[] labelFontColorArr = new Color[]{
+            Color.BLUE, Color.GREEN, Color.RED, Color.DARKBLUE,
+            Color.DARKRED, Color.DARKORANGE, Color.BROWN,Color.BLACK};
+
+    // helper variables for end-of-game pop-ups
+    private final Background victoryBg = new Background(new BackgroundFill(Color.LIGHTGREEN,null,null));
+    private final Background defeatBg = new Background(new BackgroundFill(Color.INDIANRED,null,null));
+
+    // shared tile backgrounds (immutable, so all tiles can use the same instances)
+    private static final Insets twoSpaces = new Insets(2,2,2,2);
+    private static final Background openBg = new Background(new BackgroundFill(Color.LIGHTBLUE,null,twoSpaces));
+    private static final Background safeMineBg = new Background(new BackgroundFill(Color.WHEAT,null,twoSpaces));
+    private static final Background lossMineBg = new Background(new BackgroundFill(Color.RED,null,twoSpaces));
+    private static final Background mineBg = new Background(new BackgroundFill(Color.MEDIUMVIOLETRED,null,twoSpaces));
+
+    // a single click handler shared by all tiles (the tile is the event source)
+    private final EventHandler<MouseEvent> tileClickHandler = mouseEvent -> {
+        GridTile b = (GridTile) mouseEvent.getSource();
+        cellClicked(mouseEvent.getButton(), b.x, b.y);
+    };
+
+    // create first grid as a 10x10 grid
+    public MinesweeperController(){
+        init(10,10,10);
+    }
+
+    // getters for minefield width and height
+    protected int getWidth(){return width;}
+    protected int getHeight(){return height;}
+
+    // getters for the window size fitting the current board (capped, the board scrolls)
+    protected double getSceneWidth(){
+        return Math.max(Math.min(205 + width * 30, MAX_SCENE_WIDTH),200);
+    }
+    protected double getSceneHeight(){
+        return Math.max(150,Math.min(25 + height * 30, MAX_SCENE_HEIGHT));
+    }
+
+    // initialize grid (called for each new game)
+    private void init(int height, int width, int n){
+        // take a ready minefield from the pool (built here if none is ready)
+        boardPool.configure(height, width, n, noGuess);
+        init(boardPool.take());
+        openJournal();
+        if(!noGuess)
+            return;
+        // play the start cell (a regular first click, so it is journaled too)
+        gridButtonManagement(MouseButton.PRIMARY, height / 2, width / 2);
+        gridRefresh();
+    }
+
+    // initialize grid for a given minefield (a new or a loaded game)
+    private void init(Mines field){
+        // set class variables
+        closeJournal();
+        mineField = field;
+        this.width=field.getWidth();
+        this.height=field.getHeight();
+        numMines=field.getNumMines();
+        gameLost = gameWon = false;
+        // a loaded game that already ended (everything shown) takes no more clicks
+        gameRunning=!field.isShowAll();
+        // a loaded game may already be past its first click
+        firstClick = field.getOpenedCells() == 0;
+        clicks = 0;
+        gameStart = System.nanoTime();
+        startProbabilities();
+        if(height * width > CANVAS_MODE_CELLS){
+            // large board - draw only the visible part on a canvas
+            grid = null;
+            tiles = null;
+            canvasView = new CanvasBoardView(mineField, this::cellClicked);
+            canvasView.setProbabilities(probabilities);
+            board = canvasView;
+            return;
+        }
+        canvasView = null;
+        grid = new GridPane(); // create a grid
+        tiles = new GridTile[height][width];
+        // add each cell to the grid
+        for(int i=0;i<height;i++){ //
+            for(int j=0;j<width;j++){
+                tiles[i][j] = initGridTile(i,j);
+                grid.add(tiles[i][j],j,i);
+            }
+        }
+        board = new ScrollPane(grid);
+    }
+
+    // handle a click on a cell (from a tile or from the canvas view)
+    private void cellClicked(MouseButton button, int x, int y){
+        // do not allow clicks for finished game
+        if(gameRunning) {
+            // measure what a click allocates (only when metrics or the JFR event are on)
+            MinesEvents.Click event = MinesEvents.ENABLED ? new MinesEvents.Click() : null;
+            if(event != null)
+                event.begin();
+            boolean measure = MinesMetrics.ENABLED || (event != null && event.isEnabled());
+            long allocated = measure ? MinesMetrics.allocatedBytes() : -1;
+            if(clicks++ == 0)
+                gameStart = System.nanoTime();
+            gridButtonManagement(button, x, y);
+            // do not refresh if game ended during last move (pop-up is on)
+            if(gameRunning) gridRefresh();
+            if(allocated >= 0)
+                allocated = MinesMetrics.allocatedBytes() - allocated;
+            if(MinesMetrics.ENABLED && allocated >= 0)
+                MinesMetrics.CLICK_BYTES.record(allocated);
+            if(event != null && event.shouldCommit()){
+                event.x = x;
+                event.y = y;
+                event.allocated = allocated;
+                event.commit();
+            }
+        }
+    }
+
+    // check for click conditions
+    private void gridButtonManagement(MouseButton button, int x, int y){
+        // check for right click (for flagging)
+        if (button == MouseButton.SECONDARY) {
+            // if cell is closed - set flag
+            if(!mineField.isOpen(x,y)) {
+                journal(MoveJournal.FLAG, x, y);
+                mineField.toggleFlag(x, y);
+            }
+        }
+        // click is left click
+        else if(!mineField.isFlagged(x,y)){
+            // if first click hit a mine, swap it to another location
+            // (do not allow instant-loss situations)
+            if(firstClick && mineField.hasMine(x,y)){
+                    // move mine to another cell
+                    journal(MoveJournal.MOVE_MINE, x, y);
+                    mineField.moveMine(x,y);
+                    firstClick=false;
+            }
+            journal(MoveJournal.OPEN, x, y);
+            // if location has mine
+            if(mineField.hasMine(x,y)){
+                // loss
+                endGame(x, y, false);
+            }
+            // else if location is not flagged (do not open flagged tiles)
+            else{
+                // open cell
+                mineField.open(x,y);
+                // set first click to false (used only for first-hit-mine state)
+                firstClick=false;
+                // check victory
+                if(mineField.isDone()){
+                    // victory
+                    endGame(x, y, true);
+
+                }
+            }
+        }
+    }
+
+    // start a journal for a new game (if journaling is enabled)
+    private void openJournal(){
+        if(JOURNAL_DIR == null)
+            return;
+        Path file = Path.of(JOURNAL_DIR, "game-" + System.currentTimeMillis() + "-" +
+                Long.toHexString(mineField.getSeed()) + ".mjnl");
+        try {
+            journal = new MoveJournal(file, mineField);
+        } catch (IOException e) {
+            e.printStackTrace();
+            journal = null;
+        }
+    }
+
+    // record a move in the journal (moves are written in batches by MoveJournal)
+    private void journal(int op, int x, int y){
+        if(journal == null)
+            return;
+        try {
+            journal.append(op, x, y);
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeJournal();
+        }
+    }
+
+    // called when the application stops - write out the journal of the current game
+    public void shutdown(){
+        closeJournal();
+    }
+
+    private void closeJournal(){
+        if(journal == null)
+            return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        journal = null;
+    }
+
+    // game over routine
+    private void endGame(int x, int y, boolean win) {
+        // set variables
+        mineField.setShowAll(true);
+        closeJournal(); // the game is over - write out the rest of its moves
+        try {
+            long millis = (System.nanoTime() - gameStart) / 1_000_000;
+            stats.record(height, width, mineField.getNumMines(), win, millis, clicks);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        gameLost =!win;
+        gameWon = win;
+        gameRunning=false;
+        stopProbabilities();
+        finalClickedX = x;
+        finalClickedY = y;
+        if(canvasView != null)
+            canvasView.setGameOver(win, x, y);
+        // refresh grid (show win/loss situation)
+        gridRefresh();
+        // generate a unique pop-up for each condition
+        if(win){
+            // a new pop-up for win
+            showNewWindow("Victory",
+                    "Congratulations!\nWant to try again?\n(click reset for a new game)",
+                    true);
+        }
+        else{
+            // a new pop-up for loss
+            showNewWindow("Defeat",
+                    "You lost!\nTough luck, Try again?\n(click reset for a new game)",
+                    false);
+        }
+        // show the win rate (and best time) of this board configuration over all games played
+        String lowerText = noGuess ? "No-guess mode" : "Classic mode (first click=no mine)";
+        StatsStore.Stats s = stats.get(height, width, mineField.getNumMines());
+        modeLabel.setText(lowerText + "\nWin rate: " + String.format("%.2f of %d", s.getWinRate(), s.getGames()) +
+                (s.getBestMillis() < 0 ? "" : String.format(", best %.1f s", s.getBestMillis() / 1e3)));
+    }
+
+    // open the statistics store (kept in memory only if it can't be opened,
+    // or another copy of the game uses the directory)
+    private static StatsStore openStats(){
+        String dir = System.getProperty("mines.stats", Path.of(System.getProperty("user.home"), ".mines").toString());
+        if(dir.isEmpty())
+            return new StatsStore();
+        try {
+            return new StatsStore(Path.of(dir));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new StatsStore();
+        }
+    }
+
+    // generate win/loss pop up
+    private void showNewWindow(String title,String msg, boolean victory){
+        Stage popUpWindow=new Stage();
+        // keep new pop up on top until it's closed
+        popUpWindow.getIcons().add(victory ? MinesImages.happy() : MinesImages.sad());
+        popUpWindow.initModality(Modality.APPLICATION_MODAL);
+        popUpWindow.setTitle(title);
+        // set label for pop-up window (with background according to victory)
+        Label label= new Label(msg);
+        label.setAlignment(Pos.CENTER);
+        label.setBackground(victory ? victoryBg : defeatBg);
+        // alignment inside layout
+        VBox layout= new VBox(10);
+        layout.getChildren().add(label);
+        layout.setAlignment(Pos.CENTER);
+        // fit layout background to label background
+        layout.setBackground(label.getBackground());
+        // create the scene
+        popUpWindow.setScene(new Scene(layout,225,120));
+        popUpWindow.showAndWait(); // show the pop-up window
+    }
+
+
+    // assign a color value to each number
+    static Color countToFill(int n){
+        assert(n>=1 && n<=8);
+        return labelFontColorArr[n - 1];
+    }
+
+    // color for a mine probability (green = surely safe ... red = surely a mine)
+    static Color probabilityToFill(double p){
+        return Color.hsb(120 * (1 - p), 0.9, 0.75);
+    }
+
+    // text for a mine probability (in percent)
+    static String probabilityText(double p){
+        return Long.toString(Math.round(p * 100));
+    }
+
+    // generate a tile for a grid coordinate
+    private GridTile initGridTile(int x, int y){
+        GridTile g = new GridTile(x, y);
+        // set size of each tile - cell
+        g.setMinHeight(30); g.setMaxHeight(30);
+        g.setMinWidth(30); g.setMaxWidth(30);
+        g.setPadding(Insets.EMPTY); // room for "100" (probabilities)
+        // define the mouse click action for a tile button
+        g.setOnMouseClicked(tileClickHandler);
+        updateGridTile(g);
+        return g;
+    }
+
+    // set the look of a tile according to the current minefield state
+    private void updateGridTile(GridTile g){
+        int x = g.x, y = g.y;
+        byte code = mineField.code(x,y); // get the state of the tile
+        g.setText(Mines.symbol(code)); // set string of tile
+        // check for mines
+        if(mineField.hasMine(x,y)){
+            // in victory, show mines as non-dangerous
+            if(gameWon){
+                g.setText("M");
+                g.setBackground(safeMineBg);
+            }
+            // in defeat, show mines as red X-es
+            else if(gameLost){
+                // and loss mine as extra-red
+                if(finalClickedX == x && finalClickedY == y)
+                    g.setBackground(lossMineBg);
+                else
+                    g.setBackground(mineBg);
+            }
+        }
+        // show open tiles as light blue (with a number indicating neighbor count)
+        else if(gameLost || mineField.isOpen(x,y)) {
+            g.setBackground(openBg);
+        }
+        // hidden cells show their mine probability (if the overlay is on)
+        if(code == Mines.CODE_HIDDEN && probabilities != null){
+            double p = probabilities.get(x,y);
+            g.setText(probabilityText(p));
+            g.setTextFill(probabilityToFill(p));
+            g.setFont(probabilityFont);
+        }
+        // every other code resets both (a tile may have shown a probability before);
+        // neighbor counts get the color of their number
+        else{
+            g.setTextFill(code >= 1 && code <= 8 ? countToFill(code) : Color.BLACK);
+            g.setFont(Font.getDefault());
+        }
+    }
+
+    // refresh grid after each user interaction
+    // (only the tiles of cells that changed since the last refresh are updated)
+    private void gridRefresh(){
+        long start = MinesMetrics.ENABLED ? System.nanoTime() : 0;
+        MinesEvents.Refresh event = MinesEvents.ENABLED ? new MinesEvents.Refresh() : null;
+        if(event != null)
+            event.begin();
+        int updated = refreshTiles();
+        if(MinesMetrics.ENABLED){
+            MinesMetrics.REFRESH_TIME.record(System.nanoTime() - start);
+            MinesMetrics.REFRESH_TILES.record(updated);
+        }
+        if(event != null && event.shouldCommit()){
+            event.tiles = updated;
+            event.commit();
+        }
+    }
+
+    // helper method for gridRefresh - returns the number of tiles updated
+    // (0 for the canvas view, which repaints its viewport)
+    private int refreshTiles(){
+        changedCells.clear();
+        boolean allChanged = mineField.drainChanges(changedCells);
+        if(probabilities != null){
+            if(allChanged)
+                probabilities.update();
+            else{
+                // only what is around the changed cells is computed again; the tiles of
+                // the other cells whose probability changed are updated too, and the
+                // interior cells (which share one probability) only when its text changes
+                String interior = probabilityText(probabilities.getInteriorProbability());
+                probabilityCells.clear();
+                allChanged = probabilities.update(changedCells, probabilityCells)
+                        || !interior.equals(probabilityText(probabilities.getInteriorProbability()));
+                changedCells.addAll(probabilityCells);
+            }
+        }
+        if(canvasView != null){
+            // the canvas only paints the viewport, so repaint it as a whole
+            canvasView.redraw();
+            return 0;
+        }
+        if(allChanged){
+            // every cell changed (e.g. end of game) - update all tiles
+            for(int i=0;i<height;i++){
+                for(int j=0;j<width;j++){
+                    updateGridTile(tiles[i][j]);
+                }
+            }
+            return height * width;
+        }
+        for(int k=0;k<changedCells.size();k++){
+            int cell = changedCells.get(k);
+            updateGridTile(tiles[cell / width][cell % width]);
+        }
+        return changedCells.size();
+    }
+
+    // reset grid - this is called when user clicks the reset button
+    // (field is a loaded minefield to show, or null for a new game)
+    private void resetGrid(Mines field){
+        long start = MinesMetrics.ENABLED ? System.nanoTime() : 0;
+        MinesEvents.Reset event = MinesEvents.ENABLED ? new MinesEvents.Reset() : null;
+        if(event != null)
+            event.begin();
+        // cap number of mines to fit size
+        if(numMines > width*height) {
+            numMines = width*height-1;
+        }
+        // grab the stage
+        Stage s = (Stage) resetButton.getScene().getWindow();
+        // set stage parameters
+        HBox root = new HBox();
+        widthText.clear();
+        heightText.clear();
+        mineCountText.clear();
+
+        // insert everything except the grid to the new layout (HBox)
+        Region oldBoard = board;
+        root.getChildren().addAll(s.getScene().getRoot().getChildrenUnmodifiable().filtered(
+                c -> c != oldBoard));
+
+        // initialize a new grid and mine object
+        if(field == null)
+            init(height, width, numMines);
+        else
+            init(field);
+
+        NoGuessGenerator generator = boardPool.getGenerator();
+        if(generator != null && field == null && noGuess)
+            modeLabel.setText(String.format("No-guess mode (center opened)%nsearch: %.0f ms avg, %d fallbacks",
+                    generator.getAverageMillis(), generator.getFallbacks()));
+        else if(field == null)
+            modeLabel.setText("Classic mode (first click=no mine)");
+        widthText.setPromptText("width = " + width);
+        heightText.setPromptText("height = " + height);
+        mineCountText.setPromptText("mines = " + numMines);
+        // assign new board to layout (let it take the remaining space)
+        HBox.setHgrow(board, Priority.ALWAYS);
+        root.getChildren().add(board);
+        // set the new scene for out stage
+        Scene newScene = new Scene(root, getSceneWidth(), getSceneHeight());
+        s.setScene(newScene);
+        s.show(); // and show the new stage
+        if(MinesMetrics.ENABLED)
+            MinesMetrics.RESET_TIME.record(System.nanoTime() - start);
+        if(event != null && event.shouldCommit()){
+            event.cells = (long) height * width;
+            event.commit();
+        }
+    }
+
+    // called by the FXML loader - keep the board pool in line with the settings fields
+    @FXML
+    void initialize() {
+        widthText.textProperty().addListener((o, before, now) -> settingsChanged());
+        heightText.textProperty().addListener((o, before, now) -> settingsChanged());
+        mineCountText.textProperty().addListener((o, before, now) -> settingsChanged());
+    }
+
+    // no-guess check box operation
+    @FXML
+    void noGuessBoxClick(ActionEvent ignoredEvent) {
+        settingsChanged();
+    }
+
+    // "show probabilities" check box operation
+    @FXML
+    void probabilityBoxClick(ActionEvent ignoredEvent) {
+        showProbabilities = probabilityBox.isSelected();
+        if(showProbabilities)
+            startProbabilities();
+        else
+            stopProbabilities();
+        if(canvasView != null)
+            canvasView.redraw();
+        else{
+            for(int i=0;i<height;i++){
+                for(int j=0;j<width;j++){
+                    updateGridTile(tiles[i][j]);
+                }
+            }
+        }
+    }
+
+    // start computing probabilities for the current game (if the overlay is on)
+    private void startProbabilities(){
+        probabilities = showProbabilities && gameRunning ? new MinesProbability(mineField) : null;
+        if(probabilities != null)
+            probabilities.update();
+        if(canvasView != null)
+            canvasView.setProbabilities(probabilities);
+    }
+
+    // stop showing probabilities (overlay turned off, or game over)
+    private void stopProbabilities(){
+        probabilities = null;
+        if(canvasView != null)
+            canvasView.setProbabilities(null);
+    }
+
+    // start making boards for the settings the next reset will use
+    // (same rules as resetButtonClick and resetGrid)
+    private void settingsChanged(){
+        int w = fieldValue(widthText, width), h = fieldValue(heightText, height);
+        int n = fieldValue(mineCountText, numMines);
+        if(n > w*h)
+            n = w*h-1;
+        if(w > 0 && h > 0)
+            boardPool.configure(h, w, n, noGuessBox.isSelected());
+    }
+
+    // helper method for reading a number from a text field (or keeping the current value)
+    private static int fieldValue(TextField field, int current){
+        try {
+            return Integer.parseInt(field.getText());
+        }catch(NumberFormatException ignored){
+            return current;
+        }
+    }
+
+    // reset button click operation
+    @FXML
+    void  resetButtonClick(ActionEvent ignoredEvent) {
+        // get text from labels
+        // if user replaced either size or mine count (or all), get new ones
+        try {
+            width = Integer.parseInt(widthText.getText());
+        }catch(NumberFormatException ignored){}
+        try {
+            height = Integer.parseInt(heightText.getText());
+        }catch(NumberFormatException ignored){}
+        try {
+            numMines = Integer.parseInt(mineCountText.getText());
+        }catch(NumberFormatException ignored){}
+        noGuess = noGuessBox.isSelected();
+
+        // reset with current parameters
+        resetGrid(null);
+        }
+
+    // save button click operation - write the current game to a file
+    @FXML
+    void saveButtonClick(ActionEvent ignoredEvent) {
+        FileChooser chooser = snapshotChooser("Save game");
+        File file = chooser.showSaveDialog(saveButton.getScene().getWindow());
+        if(file == null)
+            return;
+        try {
+            MinesSnapshot.save(mineField, file.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            modeLabel.setText("Could not save game:\n" + e.getMessage());
+        }
+    }
+
+    // load button click operation - replace the current game with one from a file
+    @FXML
+    void loadButtonClick(ActionEvent ignoredEvent) {
+        FileChooser chooser = snapshotChooser("Load game");
+        File file = chooser.showOpenDialog(loadButton.getScene().getWindow());
+        if(file == null)
+            return;
+        try {
+            resetGrid(MinesSnapshot.load(file.toPath()));
+        } catch (IOException e) {
+            e.printStackTrace();
+            modeLabel.setText("Could not load game:\n" + e.getMessage());
+        }
+    }
+
+    // file chooser for saved games
+    private static FileChooser snapshotChooser(String title){
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Minesweeper games", "*.mines"));
+        return chooser;
+    }
+
+}
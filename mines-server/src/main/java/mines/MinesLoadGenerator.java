@@ -0,0 +1,126 @@
+package mines;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/*
+MinesLoadGenerator: A local load generator for MinesServer.
+Opens many connections, each playing its own games with random moves (mostly opens,
+some flags), and measures the round-trip latency of every move. Prints the throughput
+and the latency percentiles at the end.
+The clients start together once every connection was made (or failed - failed connects
+are counted as errors), waiting at most START_TIMEOUT_SECONDS for the others. Replies
+that take longer than REPLY_TIMEOUT_SECONDS end that client with an error, and the
+client threads are daemons, so a stuck server can not keep the generator from exiting.
+Each client runs on a virtual thread when the JVM has them (like the server's connections),
+so tens of thousands of connections do not need as many platform threads.
+Usage: MinesLoadGenerator [connections] [seconds] [port] [height width mines]
+ */
+
+public class MinesLoadGenerator {
+    private static final int START_TIMEOUT_SECONDS = 30, REPLY_TIMEOUT_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : MinesServer.DEFAULT_PORT;
+        int height = args.length > 5 ? Integer.parseInt(args[3]) : 16;
+        int width = args.length > 5 ? Integer.parseInt(args[4]) : 30;
+        int numMines = args.length > 5 ? Integer.parseInt(args[5]) : 99;
+
+        ExecutorService pool = MinesServer.connectionExecutor(() -> Executors.newFixedThreadPool(connections, r -> {
+            Thread t = new Thread(r, "load-client");
+            t.setDaemon(true);
+            return t;
+        }));
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch started = new CountDownLatch(connections);
+        List<LatencyHistogram> histograms = new ArrayList<>();
+        long[] games = new long[connections], errors = new long[connections];
+        boolean[] connectFailed = new boolean[connections];
+        for(int c=0;c<connections;c++){
+            LatencyHistogram latency = new LatencyHistogram();
+            histograms.add(latency);
+            int id = c;
+            pool.execute(() -> {
+                Socket connection;
+                try{
+                    connection = new Socket(InetAddress.getLoopbackAddress(), port);
+                }catch(IOException e){
+                    connectFailed[id] = true;
+                    errors[id]++;
+                    return;
+                }finally{
+                    started.countDown(); // connected or failed - the others do not wait for it
+                }
+                try(Socket socket = connection){
+                    socket.setTcpNoDelay(true);
+                    socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(REPLY_TIMEOUT_SECONDS));
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+                    SplittableRandom rnd = new SplittableRandom(id);
+                    started.await(START_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    boolean running = false;
+                    while(System.nanoTime() < end){
+                        String command;
+                        if(!running)
+                            command = "NEW " + height + " " + width + " " + numMines;
+                        else
+                            command = (rnd.nextInt(10) == 0 ? "FLAG " : "OPEN ")
+                                    + rnd.nextInt(height) + " " + rnd.nextInt(width);
+                        long start = System.nanoTime();
+                        out.write(command + "\n");
+                        out.flush();
+                        String reply = in.readLine();
+                        latency.record(System.nanoTime() - start);
+                        if(reply == null)
+                            break;
+                        if(reply.startsWith("ERR"))
+                            errors[id]++;
+                        else if(!running)
+                            running = true;
+                        else if(!reply.startsWith("OK running")){
+                            running = false;
+                            games[id]++;
+                        }
+                    }
+                    out.write("QUIT\n");
+                    out.flush();
+                }catch(IOException | InterruptedException e){
+                    errors[id]++;
+                }
+            });
+        }
+        pool.shutdown();
+        if(!pool.awaitTermination(START_TIMEOUT_SECONDS + seconds + REPLY_TIMEOUT_SECONDS + 10L, TimeUnit.SECONDS))
+            pool.shutdownNow();
+
+        LatencyHistogram total = new LatencyHistogram();
+        for(LatencyHistogram h : histograms)
+            total.merge(h);
+        long finished = 0, failed = 0, notConnected = 0;
+        for(int c=0;c<connections;c++){
+            finished += games[c];
+            failed += errors[c];
+            if(connectFailed[c])
+                notConnected++;
+        }
+        System.out.printf("%d connections, %d requests in %d s (%.0f requests/sec), %d games finished, %d errors (%d failed connects)%n",
+                connections, total.getCount(), seconds, total.getCount() / (double) seconds, finished, failed, notConnected);
+        System.out.println("latency: " + total);
+    }
+}
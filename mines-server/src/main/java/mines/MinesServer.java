@@ -0,0 +1,371 @@
+package mines;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+MinesServer: A headless Minesweeper server, hosting many games (sessions) at once
+without JavaFX. Clients talk a line-oriented protocol over TCP (one command per line,
+one reply line per command):
+  NEW height width mines [seed]  -> OK id height width mines     start a game (and use it)
+  USE id                         -> OK id height width mines     continue an existing game
+  OPEN x y                       -> OK status n x:y:c ...         open a cell
+  FLAG x y                       -> OK status n x:y:c ...         toggle a flag
+  BOARD                          -> OK status height, then the board (Mines.toString)
+  QUIT                           -> OK bye
+Moves reply with the cells that changed, each once (row:column:symbol, symbols as in
+Mines.get, except that an open empty cell is sent as 0), not with the whole board.
+The move that loses a game reports the mine that was hit. status is running, won or
+lost; n = * means too many cells changed to list, and the client should ask for the
+BOARD. Errors reply ERR message.
+The first click of a game never hits a mine (same rule as the UI).
+Connections that USE the same game play it at the same time: after the first click the
+game is a ConcurrentMines board, so moves are applied without a lock, each cell is opened
+by exactly one move, and each move replies the cells that it changed itself.
+Sessions that are not used for a while (the idle timeout) are evicted: their connections
+get ERR for further moves, and USE no longer finds them.
+Games are limited in size (mines.server.maxGameCells, 2^20 cells by default), and so
+are all hosted games together (mines.server.maxTotalCells, 2^27 cells) - a NEW over
+either limit replies ERR.
+Each connection is served by its own thread - a virtual thread when the JVM supports
+them (Java 21+), otherwise a pooled platform thread.
+Usage: MinesServer [port] [idle-timeout-seconds]
+ */
+
+public class MinesServer {
+    public static final int DEFAULT_PORT = 7357;
+    // limits: cells of one game, and cells of all hosted games together
+    static final long MAX_GAME_CELLS = Long.getLong("mines.server.maxGameCells", 1L << 20);
+    static final long MAX_TOTAL_CELLS = Long.getLong("mines.server.maxTotalCells", 1L << 27);
+
+    // a game hosted by the server (may be used by several connections at once).
+    // Until the first click it is a Mines board, where the click's mine can still be
+    // moved away (under the session lock); from then on it is a shared ConcurrentMines
+    // board, played without locks.
+    private static class Session {
+        private final long id;
+        private final int height, width, numMines;
+        private Mines first;
+        private volatile ConcurrentMines board;
+        private volatile boolean lost;
+        private volatile long lastUsed = System.nanoTime();
+
+        private Session(long id, Mines mines){
+            this.id = id;
+            height = mines.getHeight();
+            width = mines.getWidth();
+            numMines = mines.getNumMines();
+            first = mines;
+        }
+
+        // the shared board, created by the first click (x,y), which is made safe
+        private ConcurrentMines board(int x, int y){
+            ConcurrentMines b = board;
+            if(b != null)
+                return b;
+            synchronized(this){
+                if(board == null){
+                    if(first.hasMine(x, y))
+                        first.moveMine(x, y);
+                    board = new ConcurrentMines(first);
+                    first = null;
+                }
+                return board;
+            }
+        }
+
+        // helper methods for reading cells and toggling flags on either board
+        // (before the first click, the Mines board is only used under the lock)
+        private byte code(int x, int y){
+            ConcurrentMines b = board;
+            if(b != null)
+                return b.code(x, y);
+            synchronized(this){
+                return first != null ? first.code(x, y) : board.code(x, y);
+            }
+        }
+
+        private void toggleFlag(int x, int y){
+            ConcurrentMines b = board;
+            if(b == null){
+                synchronized(this){
+                    if(first != null){
+                        if(!first.isOpen(x, y))
+                            first.toggleFlag(x, y);
+                        return;
+                    }
+                    b = board;
+                }
+            }
+            b.toggleFlag(x, y); // (open cells keep no flag)
+        }
+
+        private void appendTo(Appendable out) throws IOException {
+            ConcurrentMines b = board;
+            if(b == null){
+                synchronized(this){
+                    if(first != null){
+                        first.appendTo(out);
+                        return;
+                    }
+                    b = board;
+                }
+            }
+            b.appendTo(out);
+        }
+
+        private boolean won(){
+            ConcurrentMines b = board;
+            return b != null && !lost && b.isDone();
+        }
+
+        private String status(){
+            return lost ? "lost" : won() ? "won" : "running";
+        }
+    }
+
+    private final int port;
+    private final long idleNanos;
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    // cells of all hosted games
+    private final AtomicLong totalCells = new AtomicLong();
+    private final ExecutorService connections = connectionExecutor(Executors::newCachedThreadPool);
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "session-evictor");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile ServerSocket serverSocket;
+
+    public MinesServer(int port, long idleTimeoutSeconds){
+        this.port = port;
+        idleNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+    }
+
+    // one virtual thread per connection when available (Java 21+), else the given thread pool
+    // (package-private: MinesLoadGenerator runs its clients the same way)
+    static ExecutorService connectionExecutor(Supplier<ExecutorService> fallback){
+        try{
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }catch(ReflectiveOperationException e){
+            return fallback.get();
+        }
+    }
+
+    public int getSessionCount(){return sessions.size();}
+    // the port the server listens on, once serve has started (-1 before)
+    public int getLocalPort(){
+        ServerSocket server = serverSocket;
+        return server == null ? -1 : server.getLocalPort();
+    }
+
+    // accept connections until stop is called
+    public void serve() throws IOException {
+        long period = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(idleNanos) / 2);
+        evictor.scheduleAtFixedRate(this::evictIdleSessions, period, period, TimeUnit.SECONDS);
+        try(ServerSocket server = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress())){
+            serverSocket = server;
+            while(!server.isClosed()){
+                Socket socket;
+                try{
+                    socket = server.accept();
+                }catch(IOException e){
+                    if(server.isClosed())
+                        break;
+                    throw e;
+                }
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> handle(socket));
+            }
+        }finally{
+            evictor.shutdownNow();
+            connections.shutdownNow();
+        }
+    }
+
+    public void stop() throws IOException {
+        ServerSocket server = serverSocket;
+        if(server != null)
+            server.close();
+    }
+
+    // remove sessions that were not used within the idle timeout
+    // (package-private for the tests - the evictor thread runs it periodically)
+    void evictIdleSessions(){
+        long now = System.nanoTime();
+        sessions.values().removeIf(s -> {
+            if(now - s.lastUsed <= idleNanos)
+                return false;
+            totalCells.addAndGet(-(long) s.height * s.width);
+            return true;
+        });
+    }
+
+    // serve one connection
+    private void handle(Socket socket){
+        try(socket;
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))){
+            Session session = null;
+            StringBuilder reply = new StringBuilder();
+            // cells changed by the current move (one list per connection)
+            CellList changed = new CellList();
+            String line;
+            while((line = in.readLine()) != null){
+                reply.setLength(0);
+                String[] args = line.trim().split("\\s+");
+                try{
+                    switch(args[0].toUpperCase()){
+                        case "NEW":
+                            session = newSession(args);
+                            describe(session, reply);
+                            break;
+                        case "USE":
+                            session = sessions.get(Long.parseLong(args[1]));
+                            if(session == null)
+                                throw new IllegalArgumentException("no such game");
+                            describe(session, reply);
+                            break;
+                        case "OPEN":
+                        case "FLAG":
+                            move(requireSession(session), args, changed, reply);
+                            break;
+                        case "BOARD":
+                            board(requireSession(session), reply);
+                            break;
+                        case "QUIT":
+                            out.write("OK bye\n");
+                            out.flush();
+                            return;
+                        default:
+                            throw new IllegalArgumentException("unknown command " + args[0]);
+                    }
+                }catch(RuntimeException e){
+                    // bad arguments (missing, not numbers, out of the board) or unknown command
+                    reply.setLength(0);
+                    reply.append("ERR ").append(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+                }
+                out.write(reply.append('\n').toString());
+                out.flush();
+            }
+        }catch(IOException ignored){
+            // connection dropped - the session stays in the registry until it is evicted
+        }
+    }
+
+    // the session of a connection, if it is still hosted: an evicted game no longer counts
+    // against the cell limit, so its connections may not play it any more
+    // (a move that races with the eviction of its game may still be applied)
+    private Session requireSession(Session session){
+        if(session == null)
+            throw new IllegalStateException("no game - use NEW or USE first");
+        if(sessions.get(session.id) != session)
+            throw new IllegalStateException("game " + session.id + " expired - use NEW");
+        return session;
+    }
+
+    private Session newSession(String[] args){
+        int height = Integer.parseInt(args[1]), width = Integer.parseInt(args[2]);
+        int numMines = Integer.parseInt(args[3]);
+        boolean seeded = args.length > 4;
+        long seed = seeded ? Long.parseLong(args[4]) : 0;
+        long cells = (long) height * width;
+        if(height <= 0 || width <= 0 || numMines < 0)
+            throw new IllegalArgumentException("bad board size");
+        if(cells > MAX_GAME_CELLS)
+            throw new IllegalArgumentException("board too large (at most " + MAX_GAME_CELLS + " cells)");
+        // reserve the cells before building the board
+        if(totalCells.addAndGet(cells) > MAX_TOTAL_CELLS){
+            totalCells.addAndGet(-cells);
+            throw new IllegalStateException("server full - try again later");
+        }
+        Mines mines = seeded ? new Mines(height, width, numMines, seed) : new Mines(height, width, numMines);
+        Session session = new Session(nextId.getAndIncrement(), mines);
+        sessions.put(session.id, session);
+        return session;
+    }
+
+    private static void describe(Session s, StringBuilder reply){
+        s.lastUsed = System.nanoTime();
+        reply.append("OK ").append(s.id).append(' ').append(s.height).append(' ')
+                .append(s.width).append(' ').append(s.numMines);
+    }
+
+    // apply a move (same rules as MinesweeperController.gridButtonManagement) and reply
+    // the cells it changed (a move that comes after the game ended changes nothing)
+    private static void move(Session s, String[] args, CellList changed, StringBuilder reply){
+        int x = Integer.parseInt(args[1]), y = Integer.parseInt(args[2]);
+        s.lastUsed = System.nanoTime();
+        if(x < 0 || x >= s.height || y < 0 || y >= s.width)
+            throw new IllegalArgumentException("cell out of the board");
+        changed.clear();
+        boolean lostNow = false;
+        if(!s.lost && !s.won()){
+            if(args[0].equalsIgnoreCase("FLAG")){
+                s.toggleFlag(x, y);
+                changed.add(x * s.width + y);
+            }
+            else if(s.code(x, y) != Mines.CODE_FLAG){
+                ConcurrentMines b = s.board(x, y);
+                if(b.hasMine(x, y))
+                    s.lost = lostNow = true;
+                else
+                    b.open(x, y, changed);
+            }
+        }
+        reply.append("OK ").append(s.status()).append(' ');
+        if(lostNow){
+            // report the mine that ended the game
+            reply.append(1).append(' ').append(x).append(':').append(y).append(":X");
+            return;
+        }
+        if(changed.size() > Math.max(64, s.height * s.width / 8)){
+            reply.append('*');
+            return;
+        }
+        reply.append(changed.size());
+        for(int k=0;k<changed.size();k++){
+            int cell = changed.get(k);
+            int i = cell / s.width, j = cell % s.width;
+            byte code = s.code(i, j);
+            reply.append(' ').append(i).append(':').append(j)
+                    .append(':').append(code == 0 ? "0" : Mines.symbol(code));
+        }
+    }
+
+    private static void board(Session s, StringBuilder reply){
+        s.lastUsed = System.nanoTime();
+        reply.append("OK ").append(s.status()).append(' ').append(s.height).append('\n');
+        try{
+            s.appendTo(reply);
+        }catch(IOException e){
+            throw new UncheckedIOException(e); // StringBuilder does not throw
+        }
+        reply.setLength(reply.length() - 1); // the reply adds the last newline
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        long idle = args.length > 1 ? Long.parseLong(args[1]) : 600;
+        System.out.println("Minesweeper server on port " + port + " (idle timeout " + idle + " s)");
+        new MinesServer(port, idle).serve();
+    }
+}
@@ -0,0 +1,197 @@
+package mines;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinesServerTest {
+    private MinesServer server;
+    private Thread serverThread;
+
+    // a connection to the server (one request, one reply line)
+    private class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final Writer out;
+
+        private Client() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+        }
+
+        private String send(String command) throws IOException {
+            out.write(command + "\n");
+            out.flush();
+            return in.readLine();
+        }
+
+        // the board lines of a BOARD reply
+        private List<String> board(int height) throws IOException {
+            List<String> lines = new ArrayList<>();
+            assertTrue(send("BOARD").startsWith("OK "));
+            for(int k=0;k<height;k++)
+                lines.add(in.readLine());
+            return lines;
+        }
+
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @BeforeEach
+    void start() throws InterruptedException {
+        // idle games are evicted after a second (evictIdleSessions is called by the tests)
+        server = new MinesServer(0, 1);
+        serverThread = new Thread(() -> {
+            try{
+                server.serve();
+            }catch(IOException e){
+                throw new RuntimeException(e);
+            }
+        });
+        serverThread.start();
+        while(server.getLocalPort() <= 0)
+            Thread.sleep(10);
+    }
+
+    @AfterEach
+    void stop() throws IOException, InterruptedException {
+        server.stop();
+        serverThread.join(5000);
+    }
+
+    @Test
+    void playsAGame() throws IOException {
+        try(Client c = new Client()){
+            assertEquals("ERR no game - use NEW or USE first", c.send("OPEN 0 0"));
+            String reply = c.send("NEW 9 9 80 5");
+            assertTrue(reply.matches("OK \\d+ 9 9 80"), reply);
+            // the first click never hits a mine (80 of 81 cells are mined)
+            assertEquals("OK won 1 4:4:8", c.send("OPEN 4 4"));
+            assertEquals("OK won 0", c.send("FLAG 0 0")); // game over - nothing changes
+            List<String> board = c.board(9);
+            assertEquals(".........", board.get(0));
+            assertEquals("....8....", board.get(4));
+        }
+    }
+
+    @Test
+    void flagsAndLosses() throws IOException {
+        try(Client c = new Client()){
+            c.send("NEW 5 5 23 1");
+            assertEquals("OK running 1 0:0:F", c.send("FLAG 0 0"));
+            assertEquals("OK running 0", c.send("OPEN 0 0")); // flagged cells do not open
+            assertEquals("OK running 1 0:0:.", c.send("FLAG 0 0"));
+            assertEquals("OK running 1 2:2:8", c.send("OPEN 2 2")); // the first click is safe
+            // one more safe cell is left - open cells until the game ends
+            String reply = "OK running";
+            int cell = 0;
+            for(;cell<25 && reply.startsWith("OK running");cell++){
+                if(cell != 12)
+                    reply = c.send("OPEN " + cell / 5 + " " + cell % 5);
+            }
+            cell--;
+            if(reply.startsWith("OK lost"))
+                assertEquals("OK lost 1 " + cell / 5 + ":" + cell % 5 + ":X", reply);
+            else
+                assertTrue(reply.startsWith("OK won 1 " + cell / 5 + ":" + cell % 5 + ":"), reply);
+            assertTrue(c.send("OPEN 1 1").matches("OK (won|lost) 0"));
+            assertEquals("ERR cell out of the board", c.send("OPEN 9 9"));
+            assertTrue(c.send("USE 12345").startsWith("ERR"));
+        }
+    }
+
+    @Test
+    void connectionsShareAGame() throws Exception {
+        int players = 8, height = 60, width = 60;
+        long id;
+        List<String> solo;
+        try(Client c = new Client()){
+            id = Long.parseLong(c.send("NEW " + height + " " + width + " 300 9").split(" ")[1]);
+            c.send("OPEN 30 30"); // the first click (made safe)
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(players);
+        try{
+            CountDownLatch ready = new CountDownLatch(players);
+            List<Future<List<String>>> opened = new ArrayList<>();
+            for(int p=0;p<players;p++){
+                int player = p;
+                opened.add(pool.submit(() -> {
+                    List<String> cells = new ArrayList<>();
+                    try(Client c = new Client()){
+                        assertTrue(c.send("USE " + id).startsWith("OK " + id));
+                        ready.countDown();
+                        ready.await();
+                        // every player opens the cells of its own columns
+                        for(int x=0;x<height;x++){
+                            for(int y=player;y<width;y+=players){
+                                String[] reply = c.send("OPEN " + x + " " + y).split(" ");
+                                assertNotEquals("*", reply[2]);
+                                for(int k=3;k<reply.length;k++)
+                                    cells.add(reply[k].substring(0, reply[k].lastIndexOf(':')));
+                            }
+                        }
+                    }
+                    return cells;
+                }));
+            }
+            // each cell is reported by one move only
+            Set<String> seen = new HashSet<>();
+            for(Future<List<String>> f : opened){
+                for(String cell : f.get())
+                    assertTrue(seen.add(cell), "cell " + cell + " reported twice");
+            }
+        }finally{
+            pool.shutdownNow();
+        }
+        // the game ended (won or lost)
+        try(Client c = new Client()){
+            assertTrue(c.send("USE " + id).startsWith("OK"));
+            String status = c.send("FLAG 0 0");
+            assertTrue(status.equals("OK won 0") || status.equals("OK lost 0"), status);
+            solo = c.board(height);
+        }
+        assertEquals(height, solo.size());
+        for(String row : solo)
+            assertEquals(width, row.length());
+    }
+
+    @Test
+    void evictedGamesCanNotBePlayed() throws Exception {
+        try(Client c = new Client()){
+            long id = Long.parseLong(c.send("NEW 9 9 10 1").split(" ")[1]);
+            assertTrue(c.send("OPEN 4 4").startsWith("OK running"));
+            server.evictIdleSessions();
+            assertEquals(1, server.getSessionCount()); // just used
+            Thread.sleep(1100);
+            server.evictIdleSessions();
+            assertEquals(0, server.getSessionCount());
+            assertEquals("ERR game " + id + " expired - use NEW", c.send("OPEN 0 0"));
+            assertEquals("ERR game " + id + " expired - use NEW", c.send("BOARD"));
+            assertEquals("ERR no such game", c.send("USE " + id));
+            assertTrue(c.send("NEW 9 9 10 1").startsWith("OK "));
+            assertTrue(c.send("OPEN 4 4").startsWith("OK running"));
+        }
+    }
+}